@@ -1,28 +1,26 @@
 package com.vividsolutions.jts.polytriangulate;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
-import com.vividsolutions.jts.algorithm.Angle;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.geom.CoordinateList;
+import com.vividsolutions.jts.geom.CoordinateArrays;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Polygon;
-import com.vividsolutions.jts.geom.prep.PreparedGeometry;
-import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
-import com.vividsolutions.jts.polytriangulate.tri.TriEdge;
-import com.vividsolutions.jts.polytriangulate.tri.TriN;
+import com.vividsolutions.jts.polytriangulate.tri.TriStore;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
 import com.vividsolutions.jts.polytriangulate.tri.Triangulation;
 
 public class EarClipper {
     private final GeometryFactory gf;
     private final Polygon inputPolygon;
-    private PreparedGeometry inputPrepGeom;
     private Geometry triangulation;
+    private IndexedTriangleMesh mesh;
+    // receives the triangles of the current run
+    private TriangleSink sink;
     /**
      * The shell coordinates are maintain in CW order. This means that for
      * convex interior angles, the vertices forming the angle are in CW
@@ -30,12 +28,13 @@ public class EarClipper {
      */
     private PolygonShellM polyShell;
     private List<Coordinate> polyShellCoords;
-    private List<TriN> triList;
     private boolean isImprove = true;
-    // Used to find neighbors when a new tri is created
-    // Note: cannot use Edge for HashMap because of hashcode()
-    private HashMap<TriEdge, TriN> triMap;
+    private ForkJoinPool improvePool = null;
+    private boolean isBestEarFirst = false;
+    private boolean isRayCastBridging = false;
+    private boolean isNearestBridging = false;
     private Triangulation triBuilder;
+    private final EarClipperWorkspace workspace;
 
     // This set is used because it is possible that Tri's are divided to several
     // unconnected groups
@@ -45,10 +44,22 @@ public class EarClipper {
      *            the input polygon
      */
     public EarClipper(Polygon inputPolygon) {
-        gf = new GeometryFactory();
+        this(inputPolygon, new EarClipperWorkspace());
+    }
+
+    /**
+     * Creates a clipper which keeps its working state in the given
+     * workspace, so that the state can be reused for the next polygon.
+     * @param inputPolygon
+     *            the input polygon
+     * @param workspace
+     *            a workspace which is not used by another EarClipper at the
+     *            same time
+     */
+    public EarClipper(Polygon inputPolygon, EarClipperWorkspace workspace) {
         this.inputPolygon = inputPolygon;
-        triMap = new HashMap<TriEdge, TriN>();
-        triBuilder = new Triangulation();
+        this.workspace = workspace;
+        gf = workspace.getGeometryFactory();
     }
 
     /**
@@ -59,38 +70,166 @@ public class EarClipper {
         this.isImprove = isImproved;
     }
 
+    /**
+     * Sets the pool on which large triangulations are improved in parallel,
+     * or null to improve them on the calling thread.
+     * @param pool
+     * @see TriTriangleImprover#setPool(ForkJoinPool)
+     */
+    public void setImprovePool(ForkJoinPool pool) {
+        this.improvePool = pool;
+    }
+
+    /**
+     * if the ear with the best shape should be clipped first, rather than the
+     * next valid ear along the shell. This produces fewer slivers, so there
+     * is less work left for the improver.
+     * @param isBestEarFirst
+     */
+    public void setBestEarFirst(boolean isBestEarFirst) {
+        this.isBestEarFirst = isBestEarFirst;
+    }
+
+    /**
+     * if holes should be bridged to the shell by casting a ray from their
+     * leftmost vertex. This is faster for polygons with many holes.
+     * @param isRayCastBridging
+     * @see HoleJoiner#setRayCast(boolean)
+     */
+    public void setRayCastBridging(boolean isRayCastBridging) {
+        this.isRayCastBridging = isRayCastBridging;
+    }
+
+    /**
+     * if holes should be bridged to the nearest visible vertex of the shell
+     * or of a hole bridged before. This gives a shorter shell when holes are
+     * scattered.
+     * @param isNearestBridging
+     * @see HoleJoiner#setNearest(boolean)
+     */
+    public void setNearestBridging(boolean isNearestBridging) {
+        this.isNearestBridging = isNearestBridging;
+    }
+
     /**
      * Get the result triangular polygons.
      * @return triangles as a GeometryCollection
      */
     public Geometry getResult() {
         if (triangulation == null) {
-            triangulation = triangulate();
+            GeometryTriangleSink sink = new GeometryTriangleSink(gf);
+            triangulate(sink);
+            triangulation = sink.getResult();
         }
         return triangulation;
     }
 
     /**
-     * Performs the ear-clipping triangulation
-     * @return GeometryCollection of triangular polygons
+     * Get the result as an indexed mesh, without creating any geometry. The
+     * triangles are oriented clockwise, like the shell they are clipped from.
+     * @return the triangles with their distinct vertices
      */
-    private Geometry triangulate() {
-        triList = new ArrayList<TriN>();
-        createShell();
-        computeEars();
+    public IndexedTriangleMesh getMeshResult() {
+        if (mesh == null) {
+            IndexedTriangleMeshSink sink = new IndexedTriangleMeshSink(
+                    inputPolygon.getNumPoints());
+            triangulate(sink);
+            mesh = sink.getResult();
+        }
+        return mesh;
+    }
+
+    /**
+     * Performs the ear-clipping triangulation and passes each triangle to the
+     * sink. Without improvement, the triangles are passed on as the ears are
+     * clipped and are not kept. With improvement, they are passed on once it
+     * is finished.
+     * @param sink
+     *            receives the triangles
+     */
+    public void triangulate(TriangleSink sink) {
+        triangulate(sink, false);
+    }
+
+    /**
+     * Triangulates the polygon as {@link #triangulate(TriangleSink)} does,
+     * but only if it can be cut as a fan. This lets a caller pass the other
+     * polygons to another engine without testing them for a fan twice.
+     * @param sink
+     *            receives the triangles
+     * @return true if the polygon was triangulated; otherwise no triangles
+     *         were passed to the sink
+     */
+    public boolean triangulateFan(TriangleSink sink) {
+        return triangulate(sink, true);
+    }
+
+    private boolean triangulate(TriangleSink sink, boolean isFanOnly) {
+        workspace.acquire();
+        try {
+            this.sink = sink;
+            return computeTriangles(isFanOnly);
+        } finally {
+            this.sink = null;
+            workspace.release();
+        }
+    }
+
+    private boolean computeTriangles(boolean isFanOnly) {
+        triBuilder = workspace.getTriangulation();
+        if (!computeFan()) {
+            if (isFanOnly) {
+                return false;
+            }
+            createShell();
+            if (isBestEarFirst) {
+                computeEarsByQuality();
+            }
+            if (polyShell.size() >= 3) {
+                computeEars();
+            }
+        }
         // improve triangulation if required
         if (isImprove) {
-            long start = System.currentTimeMillis();
             // TriangleImprover improver = new
             // TriangleImprover(polyShellCoords);
             // improver.improve(triListComp);
             TriTriangleImprover improver = new TriTriangleImprover();
-            improver.improve(triList);
-            long end = System.currentTimeMillis();
-            System.out.println("improve used: " + (end - start)
-                    + " milliseconds");
+            improver.setPool(improvePool);
+            TriStore store = triBuilder.getStore();
+            improver.improve(store);
+            for (int t = 0; t < store.size(); t++) {
+                sink.addTriangle(store.getCoordinate(t, 0),
+                        store.getCoordinate(t, 1), store.getCoordinate(t, 2));
+            }
         }
-        return createResult();
+        return true;
+    }
+
+    /**
+     * Triangulates a polygon without holes as a fan, if it is convex or
+     * star-shaped from its only reflex vertex. This skips copying and
+     * normalizing the polygon and indexing its shell. Not used when the best
+     * ears are clipped first, since a fan pays no regard to ear shape.
+     * @return true if the polygon was triangulated
+     */
+    private boolean computeFan() {
+        if (isBestEarFirst || inputPolygon.getNumInteriorRing() > 0) {
+            return false;
+        }
+        Coordinate[] ring = inputPolygon.getExteriorRing().getCoordinates();
+        int apex = FanTriangulator.findApex(ring);
+        if (apex < 0) {
+            return false;
+        }
+        // the triangles must not share coordinates with the input
+        Coordinate[] coords = CoordinateArrays.copyDeep(ring);
+        FanTriangulator.addFan(coords, apex, new TriangleSink() {
+            public void addTriangle(Coordinate p0, Coordinate p1, Coordinate p2) {
+                EarClipper.this.addTriangle(p0, p1, p2);
+            }
+        });
+        return true;
     }
 
     private void computeEars() {
@@ -98,22 +237,24 @@ public class EarClipper {
         boolean foundEar = false;
         int cornerCount = 0;
         polyShell.nextCorner(false);
-        // find next convex corner (which is the next candidate ear)
-        Coordinate[] cornerCandidate = polyShell.getCornerCandidateVertices();
+        // the candidate corner is updated in place as the shell is clipped
+        int[] cornerCandidate = polyShell.getCornerCandidateIndex();
         do {
             foundEar = false;
-            while (CGAlgorithms.computeOrientation(cornerCandidate[0],
-                    cornerCandidate[1], cornerCandidate[2]) != CGAlgorithms.CLOCKWISE) {
-                // delete the "corner" if three points are in the same line
-                if (inLine(cornerCandidate[0], cornerCandidate[1],
-                        cornerCandidate[2])) {
+            while (polyShell.getCornerOrientation() != CGAlgorithms.CLOCKWISE) {
+                // delete the "corner" if three points are in the same line,
+                // unless it is straight at a vertex the shell still passes
+                // through again
+                if (inLine(polyShellCoords.get(cornerCandidate[0]),
+                        polyShellCoords.get(cornerCandidate[1]),
+                        polyShellCoords.get(cornerCandidate[2]))
+                        && !polyShell.isKeptCollinear(cornerCandidate[1])) {
                     polyShell.remove();
                     if (polyShell.size() < 3) {
                         return;
                     }
                 }
                 polyShell.nextCorner(true);
-                cornerCandidate = polyShell.getCornerCandidateVertices();
             }
             cornerCount++;
             if (cornerCount > 2 * polyShell.size()) {
@@ -122,7 +263,8 @@ public class EarClipper {
             }
             if (polyShell.isValidEarFast()) {
                 foundEar = true;
-                triList.add(triBuilder.add(cornerCandidate));
+                addTriangle(cornerCandidate[0], cornerCandidate[1],
+                        cornerCandidate[2]);
                 polyShell.remove();
                 if (polyShell.size() < 3) {
                     return;
@@ -131,61 +273,88 @@ public class EarClipper {
             } else {
                 polyShell.nextCorner(true);
             }
-            cornerCandidate = polyShell.getCornerCandidateVertices();
         } while (!finished);
     }
 
     /**
-     * Check if the inputs are in the same line
-     * @param a
-     * @param b
-     * @param c
-     * @return
+     * Clips the valid ears in order of their quality. Removing an ear changes
+     * the corners of its two neighbours, and releases the corners which were
+     * blocked by it or by them, so only those are rescored. Corners which
+     * never become valid ears, such as collinear ones, are left for
+     * {@link #computeEars()} to finish.
      */
-    protected boolean inLine(Coordinate a, Coordinate b, Coordinate c) {
-        double abX = b.x - a.x;
-        double abY = b.y - a.y;
-        double acX = c.x - a.x;
-        double acY = c.y - a.y;
-        // coordinate a and c are the same
-        if (acX == 0 && acY == 0) {
-            return true;
-        }
-        // a, b are the same
-        if (abX == 0 && abY == 0) {
-            return true;
-        }
-        if (abX == 0 && acX == 0) {
-            return true;
+    private void computeEarsByQuality() {
+        EarQueue queue = new EarQueue(polyShellCoords.size());
+        int v = polyShell.getCornerCandidateIndex()[0];
+        for (int i = polyShell.size(); i > 0; i--) {
+            if (polyShell.isEar(v)) {
+                queue.add(v, polyShell.earQuality(v));
+            }
+            v = polyShell.nextIndex(v);
         }
-        if (abX * acX == 0) {
-            return false;
+        while (polyShell.size() >= 3) {
+            int ear = queue.poll();
+            if (ear < 0) {
+                return;
+            }
+            // the shell around an ear may have changed since it was scored
+            if (!polyShell.isEar(ear)) {
+                continue;
+            }
+            int prev = polyShell.prevIndex(ear);
+            int next = polyShell.nextIndex(ear);
+            addTriangle(prev, ear, next);
+            polyShell.remove(ear);
+            if (polyShell.size() < 3) {
+                return;
+            }
+            updateQueue(queue, prev);
+            updateQueue(queue, next);
+            for (int i = 0; i < polyShell.getNumReleased(); i++) {
+                updateQueue(queue, polyShell.getReleased(i));
+            }
         }
-        if (abY / abX == acY / acX) {
-            return true;
+    }
+
+    private void updateQueue(EarQueue queue, int v) {
+        if (polyShell.isEar(v)) {
+            queue.add(v, polyShell.earQuality(v));
+        } else {
+            queue.remove(v);
         }
-        return false;
     }
 
-    private Geometry createResult() {
-        Geometry[] geoms = new Geometry[triList.size()];
-        for (int i = 0; i < triList.size(); i++) {
-            geoms[i] = createPolygon(triList.get(i));
+    /**
+     * Emits the triangle for an ear. Neighbours are only needed by the
+     * improver, so without improvement the triangle goes straight to the sink
+     * and nothing is allocated.
+     * @param i0
+     * @param i1
+     * @param i2
+     *            shell indices of the ear
+     */
+    private void addTriangle(int i0, int i1, int i2) {
+        addTriangle(polyShellCoords.get(i0), polyShellCoords.get(i1),
+                polyShellCoords.get(i2));
+    }
+
+    private void addTriangle(Coordinate p0, Coordinate p1, Coordinate p2) {
+        if (isImprove) {
+            triBuilder.add(p0, p1, p2);
+        } else {
+            sink.addTriangle(p0, p1, p2);
         }
-        return gf.createGeometryCollection(geoms);
     }
 
     /**
-     * Creates a Polygon from a PolygonTriangle object
-     * @param t
-     *            the triangle
-     * @return a new Polygon object
+     * Check if the inputs are in the same line
+     * @param a
+     * @param b
+     * @param c
+     * @return
      */
-    private Polygon createPolygon(final TriN t) {
-        return gf.createPolygon(
-                gf.createLinearRing(new Coordinate[] { t.getCoordinate(0),
-                        t.getCoordinate(1), t.getCoordinate(2),
-                        t.getCoordinate(0) }), null);
+    protected boolean inLine(Coordinate a, Coordinate b, Coordinate c) {
+        return TriPredicate.orientationIndex(a, b, c) == CGAlgorithms.COLLINEAR;
     }
 
     /**
@@ -198,171 +367,16 @@ public class EarClipper {
         // defensively copy the input polygon
         Polygon poly = (Polygon) inputPolygon.clone();
         poly.normalize();
-        PreparedGeometryFactory pgFact = new PreparedGeometryFactory();
-        inputPrepGeom = pgFact.create(poly);
-        polyShellCoords = new ArrayList<Coordinate>();
+        polyShellCoords = workspace.getShellCoords();
         Coordinate[] coords = poly.getExteriorRing().getCoordinates();
         polyShellCoords.addAll(Arrays.asList(coords));
         if (poly.getNumInteriorRing() > 0) {
-            HoleJoiner holeJoiner = new HoleJoiner(inputPrepGeom);
+            HoleJoiner holeJoiner = new HoleJoiner(poly);
+            holeJoiner.setRayCast(isRayCastBridging);
+            holeJoiner.setNearest(isNearestBridging);
             holeJoiner.joinHoles(polyShellCoords);
         }
-        polyShell = new PolygonShellM(polyShellCoords);
-    }
-}
-
-class PolygonShellM {
-    /**
-     * The shell coordinates are maintain in CW order. This means that for
-     * convex interior angles, the vertices forming the angle are in CW
-     * orientation.
-     */
-    private final List<Coordinate> shellCoords;
-    private final int[] shellCoordAvailable;
-    private int size;
-    // index for current candidate corner
-    public int[] cornerCandidate;
-    // first available coordinate index
-    private int firstAvailable;
-
-    public PolygonShellM(List<Coordinate> shellCoords) {
-        this.shellCoords = shellCoords;
-        size = shellCoords.size() - 1;
-        shellCoordAvailable = new int[size];
-        for (int i = 0; i < size; i++) {
-            shellCoordAvailable[i] = i + 1;
-        }
-        shellCoordAvailable[size - 1] = 0;
-        cornerCandidate = new int[3];
-        cornerCandidate[0] = 0;
-        cornerCandidate[1] = 1;
-        cornerCandidate[2] = 2;
-        firstAvailable = 0;
-    }
-
-    public int size() {
-        return size;
-    }
-
-    /**
-     * Check if the current corner candidate is valid without using cover()
-     * @return
-     */
-    public boolean isValidEarFast() {
-        Coordinate[] cornerCandidateV = getCornerCandidateVertices();
-        double angle = Angle.angleBetweenOriented(cornerCandidateV[0],
-                cornerCandidateV[1], cornerCandidateV[2]);
-        Coordinate[] triRing = new Coordinate[] { cornerCandidateV[0],
-                cornerCandidateV[1], cornerCandidateV[2], cornerCandidateV[0] };
-        int currIndex = nextIndex(firstAvailable);
-        int prevIndex = firstAvailable;
-        Coordinate prevV = shellCoords.get(prevIndex);
-        for (int i = 0; i < size; i++) {
-            Coordinate v = shellCoords.get(currIndex);
-            // when corner[1] occurs, cannot simply skip. It might occur
-            // multiple times and is connected with a hole
-            if (v.equals2D(triRing[1])) {
-                Coordinate nextTmp = shellCoords.get(nextIndex(currIndex));
-                double aOut = Angle.angleBetweenOriented(cornerCandidateV[0],
-                        cornerCandidateV[1], nextTmp);
-                double aIn = Angle.angleBetweenOriented(cornerCandidateV[0],
-                        cornerCandidateV[1], prevV);
-                if (aOut > 0 && aOut < angle) {
-                    return false;
-                }
-                if (aIn > 0 && aIn < angle) {
-                    return false;
-                }
-                if (aOut == 0 && aIn == angle) {
-                    return false;
-                }
-                prevV = v;
-                prevIndex = currIndex;
-                currIndex = nextIndex(currIndex);
-                continue;
-            }
-            prevV = v;
-            prevIndex = currIndex;
-            currIndex = nextIndex(currIndex);
-            if (v.equals2D(triRing[0]) || v.equals2D(triRing[2])) {
-                continue;
-            }
-            // not valid if vertex is contained in tri
-            if (CGAlgorithms.isPointInRing(v, triRing)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Remove corner[1] and update the candidate corner.
-     */
-    public void remove() {
-        if (firstAvailable == cornerCandidate[1]) {
-            firstAvailable = shellCoordAvailable[cornerCandidate[1]];
-        }
-        shellCoordAvailable[cornerCandidate[0]] = shellCoordAvailable[cornerCandidate[1]];
-        shellCoordAvailable[cornerCandidate[1]] = -1;
-        size--;
-        nextCorner(false);
-    }
-
-    /**
-     * Get the corner candidate coordinates based on current candidate index
-     * @return
-     */
-    public Coordinate[] getCornerCandidateVertices() {
-        Coordinate[] coord = new Coordinate[] {
-                shellCoords.get(cornerCandidate[0]),
-                shellCoords.get(cornerCandidate[1]),
-                shellCoords.get(cornerCandidate[2]) };
-        return coord;
-    }
-
-    public int[] getCornerCandidateIndex() {
-        return cornerCandidate;
-    }
-
-    /**
-     * Set to next corner candidate.
-     * @param moveFirst
-     *            if corner[0] should be moved to next available coordinates.
-     */
-    public void nextCorner(boolean moveFirst) {
-        if (size < 3) {
-            return;
-        }
-        if (moveFirst) {
-            cornerCandidate[0] = nextIndex(cornerCandidate[0]);
-        }
-        cornerCandidate[1] = nextIndex(cornerCandidate[0]);
-        cornerCandidate[2] = nextIndex(cornerCandidate[1]);
-    }
-
-    /**
-     * Get the index of the next available shell coordinate starting from the
-     * given candidate position.
-     * @param pos
-     *            candidate position
-     * @return index of the next available shell coordinate
-     */
-    private int nextIndex(int pos) {
-        return shellCoordAvailable[pos];
-    }
-
-    public Polygon toGeometry() {
-        GeometryFactory fact = new GeometryFactory();
-        CoordinateList coordList = new CoordinateList();
-        int availIndex = firstAvailable;
-        for (int i = 0; i < size; i++) {
-            Coordinate v = shellCoords.get(availIndex);
-            availIndex = nextIndex(availIndex);
-            // if (i < shellCoordAvailable.length && shellCoordAvailable.get(i))
-            coordList.add(v, true);
-        }
-        coordList.closeRing();
-        return fact.createPolygon(
-                fact.createLinearRing(coordList.toCoordinateArray()), null);
+        polyShell = workspace.getShell();
+        polyShell.init(polyShellCoords);
     }
 }
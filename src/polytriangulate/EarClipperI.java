@@ -0,0 +1,198 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.polytriangulate.tri.TriStore;
+import com.vividsolutions.jts.polytriangulate.tri.Triangulation;
+
+/**
+ * Ear clipper for polygons with integer coordinates, such as vector tile or
+ * fixed-point survey data. The rings are clipped by {@link PolygonRingsR} as
+ * in {@link EarClipperR}, and the orientation tests of clipping, bridging
+ * and improving are computed exactly in long arithmetic. Only the choice of
+ * the blocking vertex farthest from an ear's base compares distances in
+ * double. No Coordinate objects are created. The result is an indexed mesh
+ * over the distinct input vertices.
+ * <p>
+ * Ordinates must lie within +/- {@link #MAX_ORDINATE}, so that the products
+ * in the orientation test fit in a long.
+ */
+public class EarClipperI {
+    public static final int MAX_ORDINATE = (1 << 30) - 1;
+
+    private final int[][] rings;
+    private boolean isImprove = true;
+    private PolygonRingsR polyRings;
+    private Triangulation triBuilder;
+    // distinct vertex ordinates as x, y pairs
+    private int[] vertices;
+    private boolean isTriangulated = false;
+
+    /**
+     * @param rings
+     *            the shell followed by the holes, each as x, y pairs in
+     *            either orientation. A closing point equal to the first one
+     *            is ignored
+     */
+    public EarClipperI(int[][] rings) {
+        if (rings.length == 0) {
+            throw new IllegalArgumentException("No shell given");
+        }
+        for (int r = 0; r < rings.length; r++) {
+            for (int i = 0; i < rings[r].length; i++) {
+                int v = rings[r][i];
+                if (v < -MAX_ORDINATE || v > MAX_ORDINATE) {
+                    throw new IllegalArgumentException(
+                            "Ordinate out of range: " + v);
+                }
+            }
+        }
+        this.rings = rings;
+    }
+
+    /**
+     * if needs to improve the triangle set.
+     * @param isImproved
+     */
+    public void setImprove(boolean isImproved) {
+        this.isImprove = isImproved;
+    }
+
+    /**
+     * Gets the distinct vertices of the input. Collinear vertices which were
+     * dropped are still here, but not used by any triangle.
+     * @return a new array of x, y pairs
+     */
+    public int[] getVertices() {
+        triangulate();
+        return vertices.clone();
+    }
+
+    /**
+     * Gets the triangles as indices into {@link #getVertices()}. The
+     * triangles are oriented clockwise.
+     * @return a new array of three vertex indices per triangle
+     */
+    public int[] getIndices() {
+        triangulate();
+        TriStore store = triBuilder.getStore();
+        int[] indices = new int[3 * store.size()];
+        for (int t = 0; t < store.size(); t++) {
+            for (int i = 0; i < 3; i++) {
+                indices[3 * t + i] = store.getVertex(t, i);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Get the result as an indexed mesh with double ordinates.
+     * @return the triangles with the distinct input vertices
+     */
+    public IndexedTriangleMesh getMeshResult() {
+        triangulate();
+        double[] ords = new double[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            ords[i] = vertices[i];
+        }
+        return new IndexedTriangleMesh(ords, getIndices());
+    }
+
+    private void triangulate() {
+        if (isTriangulated) {
+            return;
+        }
+        polyRings = new PolygonRingsR(rings) {
+            @Override
+            protected int orientationIndex(double ax, double ay, double bx,
+                    double by, double cx, double cy) {
+                return EarClipperI.orientationIndex((int) ax, (int) ay,
+                        (int) bx, (int) by, (int) cx, (int) cy);
+            }
+        };
+        int numVertices = polyRings.getNumVertices();
+        vertices = new int[2 * numVertices];
+        triBuilder = new Triangulation();
+        TriStore store = triBuilder.getStore();
+        for (int i = 0; i < numVertices; i++) {
+            vertices[2 * i] = (int) polyRings.getVertexX(i);
+            vertices[2 * i + 1] = (int) polyRings.getVertexY(i);
+            store.addVertex(polyRings.getVertexX(i), polyRings.getVertexY(i));
+        }
+        computeEars();
+        if (isImprove) {
+            TriTriangleImprover improver = new TriTriangleImprover() {
+                @Override
+                protected int orientationIndex(TriStore store, int a, int b,
+                        int c) {
+                    return EarClipperI.this.orientationIndex(a, b, c);
+                }
+            };
+            improver.improve(store);
+        }
+        isTriangulated = true;
+    }
+
+    /**
+     * Walks the shell clipping every valid ear, joining the holes as they
+     * are met, as {@link EarClipperR} does.
+     */
+    private void computeEars() {
+        int ear = polyRings.next(0);
+        int stop = ear;
+        while (polyRings.size() >= 3) {
+            int prev = polyRings.prev(ear);
+            int next = polyRings.next(ear);
+            int orientation = polyRings.orientation(ear);
+            if (orientation == CGAlgorithms.COLLINEAR) {
+                // drop flat corners and spikes; the previous corner changes
+                polyRings.remove(ear);
+                ear = prev;
+                stop = ear;
+                continue;
+            }
+            if (orientation == CGAlgorithms.CLOCKWISE) {
+                int blocker = polyRings.findBlocker(ear);
+                if (blocker < 0) {
+                    triBuilder.add(polyRings.vertexOf(prev),
+                            polyRings.vertexOf(ear), polyRings.vertexOf(next));
+                    polyRings.remove(ear);
+                    ear = polyRings.next(next);
+                    stop = ear;
+                    continue;
+                }
+                if (polyRings.isInHole(blocker) && polyRings.joinHole(ear)) {
+                    stop = ear;
+                    continue;
+                }
+            }
+            ear = next;
+            if (ear == stop) {
+                throw new IllegalStateException(
+                        "Unable to find a convex corner which is a valid ear");
+            }
+        }
+    }
+
+    private int orientationIndex(int a, int b, int c) {
+        return orientationIndex(vertices[2 * a], vertices[2 * a + 1],
+                vertices[2 * b], vertices[2 * b + 1], vertices[2 * c],
+                vertices[2 * c + 1]);
+    }
+
+    /**
+     * Gets the orientation of c relative to the line from a to b. With the
+     * ordinates in range, the products fit in a long and the result is
+     * exact.
+     */
+    static int orientationIndex(int ax, int ay, int bx, int by, int cx,
+            int cy) {
+        long det = (long) (bx - ax) * (cy - ay) - (long) (by - ay) * (cx - ax);
+        if (det > 0) {
+            return CGAlgorithms.COUNTERCLOCKWISE;
+        }
+        if (det < 0) {
+            return CGAlgorithms.CLOCKWISE;
+        }
+        return CGAlgorithms.COLLINEAR;
+    }
+}
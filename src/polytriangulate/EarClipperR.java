@@ -0,0 +1,149 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.polytriangulate.tri.TriStore;
+import com.vividsolutions.jts.polytriangulate.tri.Triangulation;
+
+/**
+ * Ear clipper which keeps the shell and the holes as separate rings, instead
+ * of bridging the holes to the shell with {@link HoleJoiner} first. The
+ * reflex vertices of all rings are held in one {@link ReflexVertexIndex}, so
+ * an ear covering part of a hole is seen to be blocked by a hole vertex. The
+ * hole is then spliced into the shell at the ear, through the blocking
+ * vertex which is visible from the ear tip.
+ */
+public class EarClipperR {
+    private final GeometryFactory gf;
+    private final Polygon inputPolygon;
+    private Geometry triangulation;
+    /**
+     * The shell is maintained in CW order and the holes in CCW order, so that
+     * the interior is on the right of every ring.
+     */
+    private PolygonRingsR polyRings;
+    private boolean isImprove = true;
+    private Triangulation triBuilder;
+
+    /**
+     * Constructor
+     * @param inputPolygon
+     *            the input polygon
+     */
+    public EarClipperR(Polygon inputPolygon) {
+        gf = new GeometryFactory();
+        this.inputPolygon = inputPolygon;
+        triBuilder = new Triangulation();
+    }
+
+    /**
+     * if needs to improve the triangle set.
+     * @param isImproved
+     */
+    public void setImprove(boolean isImproved) {
+        this.isImprove = isImproved;
+    }
+
+    /**
+     * Get the result triangular polygons.
+     * @return triangles as a GeometryCollection
+     */
+    public Geometry getResult() {
+        if (triangulation == null) {
+            triangulation = triangulate();
+        }
+        return triangulation;
+    }
+
+    /**
+     * Performs the ear-clipping triangulation
+     * @return GeometryCollection of triangular polygons
+     */
+    private Geometry triangulate() {
+        // defensively copy the input polygon
+        Polygon poly = (Polygon) inputPolygon.clone();
+        poly.normalize();
+        polyRings = new PolygonRingsR(poly);
+        TriStore store = triBuilder.getStore();
+        for (int i = 0; i < polyRings.getNumVertices(); i++) {
+            store.addVertex(polyRings.getVertexCoordinate(i));
+        }
+        computeEars();
+        if (isImprove) {
+            TriTriangleImprover improver = new TriTriangleImprover();
+            improver.improve(triBuilder.getStore());
+        }
+        return createResult();
+    }
+
+    /**
+     * Walks the shell clipping every valid ear, as {@link EarClipperZ} does.
+     * A convex corner which is blocked by a hole vertex joins that hole to
+     * the shell and is tried again.
+     */
+    private void computeEars() {
+        // start with the corner at the second vertex, as EarClipper does
+        int ear = polyRings.next(0);
+        int stop = ear;
+        while (polyRings.size() >= 3) {
+            int prev = polyRings.prev(ear);
+            int next = polyRings.next(ear);
+            int orientation = polyRings.orientation(ear);
+            if (orientation == CGAlgorithms.COLLINEAR) {
+                // drop flat corners and spikes; the previous corner changes
+                polyRings.remove(ear);
+                ear = prev;
+                stop = ear;
+                continue;
+            }
+            if (orientation == CGAlgorithms.CLOCKWISE) {
+                int blocker = polyRings.findBlocker(ear);
+                if (blocker < 0) {
+                    triBuilder.add(polyRings.vertexOf(prev),
+                            polyRings.vertexOf(ear), polyRings.vertexOf(next));
+                    polyRings.remove(ear);
+                    ear = polyRings.next(next);
+                    stop = ear;
+                    continue;
+                }
+                if (polyRings.isInHole(blocker) && polyRings.joinHole(ear)) {
+                    stop = ear;
+                    continue;
+                }
+            }
+            ear = next;
+            if (ear == stop) {
+                throw new IllegalStateException(
+                        "Unable to find a convex corner which is a valid ear");
+            }
+        }
+    }
+
+    private Geometry createResult() {
+        TriStore store = triBuilder.getStore();
+        Geometry[] geoms = new Geometry[store.size()];
+        for (int t = 0; t < store.size(); t++) {
+            geoms[t] = createPolygon(store, t);
+        }
+        return gf.createGeometryCollection(geoms);
+    }
+
+    /**
+     * Creates a Polygon from a triangle of the store
+     * @param store
+     *            the triangles
+     * @param t
+     *            the triangle id
+     * @return a new Polygon object
+     */
+    private Polygon createPolygon(TriStore store, int t) {
+        return gf.createPolygon(
+                gf.createLinearRing(new Coordinate[] {
+                        store.getCoordinate(t, 0), store.getCoordinate(t, 1),
+                        store.getCoordinate(t, 2), store.getCoordinate(t, 0) }),
+                null);
+    }
+}
@@ -0,0 +1,88 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.polytriangulate.tri.Triangulation;
+
+/**
+ * The working state of {@link EarClipper}, kept so that it can be reused
+ * for polygon after polygon. The shell arrays, the reflex vertex grid, the
+ * triangle store and the maps only grow when a larger polygon comes along.
+ * <p>
+ * A workspace may be used by one EarClipper at a time. Worker threads can
+ * each use their own instance from {@link #forCurrentThread()}.
+ */
+public class EarClipperWorkspace {
+    private static final ThreadLocal<EarClipperWorkspace> threadWorkspace = new ThreadLocal<EarClipperWorkspace>() {
+        @Override
+        protected EarClipperWorkspace initialValue() {
+            return new EarClipperWorkspace();
+        }
+    };
+
+    private final GeometryFactory gf;
+    private final PolygonShellM polyShell = new PolygonShellM();
+    private final ArrayList<Coordinate> polyShellCoords = new ArrayList<Coordinate>();
+    private final Triangulation triBuilder = new Triangulation();
+    private boolean isInUse = false;
+
+    public EarClipperWorkspace() {
+        this(new GeometryFactory());
+    }
+
+    /**
+     * @param gf
+     *            the factory used to create the output triangles
+     */
+    public EarClipperWorkspace(GeometryFactory gf) {
+        this.gf = gf;
+    }
+
+    /**
+     * Gets the workspace of the current thread.
+     * @return
+     */
+    public static EarClipperWorkspace forCurrentThread() {
+        return threadWorkspace.get();
+    }
+
+    public GeometryFactory getGeometryFactory() {
+        return gf;
+    }
+
+    /**
+     * Marks the workspace as used by a triangulation.
+     */
+    void acquire() {
+        if (isInUse) {
+            throw new IllegalStateException(
+                    "Workspace is already used by another EarClipper");
+        }
+        isInUse = true;
+    }
+
+    /**
+     * Empties the coordinate list and the triangulation, so that the workspace does not keep
+     * the last polygon alive, and makes it available again.
+     */
+    void release() {
+        polyShellCoords.clear();
+        triBuilder.clear();
+        isInUse = false;
+    }
+
+    PolygonShellM getShell() {
+        return polyShell;
+    }
+
+    List<Coordinate> getShellCoords() {
+        return polyShellCoords;
+    }
+
+    Triangulation getTriangulation() {
+        return triBuilder;
+    }
+}
@@ -0,0 +1,438 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.polytriangulate.tri.TriStore;
+import com.vividsolutions.jts.polytriangulate.tri.Triangulation;
+
+/**
+ * Ear clipper which hashes the shell vertices by their Z-order (Morton) code.
+ * The vertices which can lie inside a candidate ear are found by walking the
+ * Z-order list over the range of codes spanned by the envelope of the ear,
+ * instead of scanning the whole shell. Holes are joined to the shell by
+ * {@link HoleJoiner} as in {@link EarClipper}.
+ */
+public class EarClipperZ {
+    private final GeometryFactory gf;
+    private final Polygon inputPolygon;
+    private Geometry triangulation;
+    /**
+     * The shell coordinates are maintain in CW order. This means that for
+     * convex interior angles, the vertices forming the angle are in CW
+     * orientation.
+     */
+    private PolygonShellZ polyShell;
+    private List<Coordinate> polyShellCoords;
+    private boolean isImprove = true;
+    private ForkJoinPool improvePool = null;
+    private Triangulation triBuilder;
+
+    /**
+     * Constructor
+     * @param inputPolygon
+     *            the input polygon
+     */
+    public EarClipperZ(Polygon inputPolygon) {
+        gf = new GeometryFactory();
+        this.inputPolygon = inputPolygon;
+        triBuilder = new Triangulation();
+    }
+
+    /**
+     * if needs to improve the triangle set.
+     * @param isImproved
+     */
+    public void setImprove(boolean isImproved) {
+        this.isImprove = isImproved;
+    }
+
+    /**
+     * Sets the pool on which large triangulations are improved in parallel,
+     * or null to improve them on the calling thread.
+     * @param pool
+     * @see TriTriangleImprover#setPool(ForkJoinPool)
+     */
+    public void setImprovePool(ForkJoinPool pool) {
+        this.improvePool = pool;
+    }
+
+    /**
+     * Get the result triangular polygons.
+     * @return triangles as a GeometryCollection
+     */
+    public Geometry getResult() {
+        if (triangulation == null) {
+            triangulation = triangulate();
+        }
+        return triangulation;
+    }
+
+    /**
+     * Performs the ear-clipping triangulation
+     * @return GeometryCollection of triangular polygons
+     */
+    private Geometry triangulate() {
+        createShell();
+        computeEars();
+        if (isImprove) {
+            TriTriangleImprover improver = new TriTriangleImprover();
+            improver.setPool(improvePool);
+            improver.improve(triBuilder.getStore());
+        }
+        return createResult();
+    }
+
+    /**
+     * Walks the shell clipping every valid ear. After a clip the walk skips
+     * ahead one vertex, which tends to produce fewer slivers than clipping
+     * the same spot again.
+     */
+    private void computeEars() {
+        // start with the corner at the second vertex, as EarClipper does
+        int ear = polyShell.next(0);
+        int stop = ear;
+        while (polyShell.size() >= 3) {
+            int prev = polyShell.prev(ear);
+            int next = polyShell.next(ear);
+            int orientation = polyShell.orientation(ear);
+            if (orientation == CGAlgorithms.COLLINEAR) {
+                // drop flat corners and spikes; the previous corner changes
+                polyShell.remove(ear);
+                ear = prev;
+                stop = ear;
+                continue;
+            }
+            if (orientation == CGAlgorithms.CLOCKWISE && polyShell.isEar(ear)) {
+                triBuilder.add(polyShellCoords.get(prev),
+                        polyShellCoords.get(ear), polyShellCoords.get(next));
+                polyShell.remove(ear);
+                ear = polyShell.next(next);
+                stop = ear;
+                continue;
+            }
+            ear = next;
+            if (ear == stop) {
+                throw new IllegalStateException(
+                        "Unable to find a convex corner which is a valid ear");
+            }
+        }
+    }
+
+    private Geometry createResult() {
+        TriStore store = triBuilder.getStore();
+        Geometry[] geoms = new Geometry[store.size()];
+        for (int t = 0; t < store.size(); t++) {
+            geoms[t] = createPolygon(store, t);
+        }
+        return gf.createGeometryCollection(geoms);
+    }
+
+    /**
+     * Creates a Polygon from a triangle of the store
+     * @param store
+     *            the triangles
+     * @param t
+     *            the triangle id
+     * @return a new Polygon object
+     */
+    private Polygon createPolygon(TriStore store, int t) {
+        return gf.createPolygon(
+                gf.createLinearRing(new Coordinate[] {
+                        store.getCoordinate(t, 0), store.getCoordinate(t, 1),
+                        store.getCoordinate(t, 2), store.getCoordinate(t, 0) }),
+                null);
+    }
+
+    /**
+     * Transforms the input polygon into a single, possible self-intersecting
+     * shell by connecting holes to the exterior ring.
+     */
+    private void createShell() {
+        // defensively copy the input polygon
+        Polygon poly = (Polygon) inputPolygon.clone();
+        poly.normalize();
+        polyShellCoords = new ArrayList<Coordinate>();
+        Coordinate[] coords = poly.getExteriorRing().getCoordinates();
+        polyShellCoords.addAll(Arrays.asList(coords));
+        if (poly.getNumInteriorRing() > 0) {
+            HoleJoiner holeJoiner = new HoleJoiner(poly);
+            holeJoiner.joinHoles(polyShellCoords);
+        }
+        polyShell = new PolygonShellZ(polyShellCoords);
+    }
+}
+
+/**
+ * Shell ring held in primitive arrays, together with the vertices which can
+ * block an ear sorted by Z-order code. These are the reflex and collinear
+ * vertices, and those occurring more than once. A convex vertex stays convex
+ * while ears are clipped, so it is dropped from the Z-order array as soon as
+ * it becomes convex.
+ */
+class PolygonShellZ {
+    private static final int NONE = -1;
+    // largest ordinate value after scaling to the Z-order grid
+    private static final double Z_ORDER_EXTENT = 32767.0;
+
+    private final double[] xy;
+    private final int[] prev;
+    private final int[] next;
+    // true if the coordinate occurs more than once in the shell (hole joins)
+    private final boolean[] isShared;
+    private final EarPredicate predicate;
+    // blocking vertices and their codes in Z-order
+    private final int[] zVertex;
+    private final int[] zCode;
+    private final int zSize;
+    // position of each vertex in zVertex, NONE if it is not there
+    private final int[] zPos;
+    // next position at or after each one which still holds a blocking
+    // vertex, compressed on lookup
+    private final int[] zNextLive;
+    private final double minX;
+    private final double minY;
+    private final double zScale;
+    private int size;
+    // envelope of the ear being tested
+    private double earMinX;
+    private double earMinY;
+    private double earMaxX;
+    private double earMaxY;
+
+    /**
+     * @param shellCoords
+     *            closed CW shell ring
+     */
+    public PolygonShellZ(List<Coordinate> shellCoords) {
+        size = shellCoords.size() - 1;
+        xy = new double[2 * size];
+        prev = new int[size];
+        next = new int[size];
+        isShared = new boolean[size];
+        double x0 = Double.POSITIVE_INFINITY;
+        double y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY;
+        double y1 = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            Coordinate p = shellCoords.get(i);
+            xy[2 * i] = p.x;
+            xy[2 * i + 1] = p.y;
+            prev[i] = i == 0 ? size - 1 : i - 1;
+            next[i] = i == size - 1 ? 0 : i + 1;
+            x0 = Math.min(x0, p.x);
+            y0 = Math.min(y0, p.y);
+            x1 = Math.max(x1, p.x);
+            y1 = Math.max(y1, p.y);
+        }
+        predicate = new EarPredicate(xy);
+        markShared();
+        minX = x0;
+        minY = y0;
+        double extent = Math.max(x1 - x0, y1 - y0);
+        zScale = extent > 0 ? Z_ORDER_EXTENT / extent : 0.0;
+
+        // sort the blocking vertices by Z-order code
+        long[] keys = new long[size];
+        int numKeys = 0;
+        for (int i = 0; i < size; i++) {
+            if (canBlock(i)) {
+                keys[numKeys++] = ((long) zOrder(xy[2 * i], xy[2 * i + 1]) << 32)
+                        | i;
+            }
+        }
+        Arrays.sort(keys, 0, numKeys);
+        zSize = numKeys;
+        zVertex = new int[zSize];
+        zCode = new int[zSize];
+        zNextLive = new int[zSize + 1];
+        zPos = new int[size];
+        Arrays.fill(zPos, NONE);
+        for (int k = 0; k < zSize; k++) {
+            zVertex[k] = (int) keys[k];
+            zCode[k] = (int) (keys[k] >>> 32);
+            zPos[zVertex[k]] = k;
+            zNextLive[k] = k;
+        }
+        zNextLive[zSize] = zSize;
+    }
+
+    /**
+     * Marks the vertices which occur more than once. Sorting brings equal
+     * vertices next to each other.
+     */
+    private void markShared() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        SortedVertexIndex.sort(order, new int[size], 0, size, xy);
+        for (int k = 1; k < size; k++) {
+            int u = order[k - 1];
+            int v = order[k];
+            if (predicate.isCoincident(u, v)) {
+                isShared[u] = true;
+                isShared[v] = true;
+            }
+        }
+    }
+
+    /**
+     * Interleaves the bits of the scaled ordinates into a Z-order code.
+     */
+    private int zOrder(double x, double y) {
+        int ix = (int) ((x - minX) * zScale);
+        int iy = (int) ((y - minY) * zScale);
+        return spreadBits(ix) | (spreadBits(iy) << 1);
+    }
+
+    private static int spreadBits(int v) {
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int prev(int v) {
+        return prev[v];
+    }
+
+    public int next(int v) {
+        return next[v];
+    }
+
+    /**
+     * Gets the orientation of the corner formed by v and its neighbours.
+     */
+    public int orientation(int v) {
+        return predicate.orientationIndex(prev[v], v, next[v]);
+    }
+
+    /**
+     * Removes a vertex from the shell ring, and drops its neighbours from the
+     * Z-order array if they have become convex.
+     */
+    public void remove(int v) {
+        int p = prev[v];
+        int n = next[v];
+        next[p] = n;
+        prev[n] = p;
+        removeFromZOrder(v);
+        size--;
+        if (zPos[p] != NONE && !canBlock(p)) {
+            removeFromZOrder(p);
+        }
+        if (zPos[n] != NONE && !canBlock(n)) {
+            removeFromZOrder(n);
+        }
+    }
+
+    private void removeFromZOrder(int v) {
+        int k = zPos[v];
+        if (k == NONE) {
+            return;
+        }
+        zNextLive[k] = k + 1;
+        zPos[v] = NONE;
+    }
+
+    /**
+     * Finds the first position at or after k which holds a blocking vertex.
+     */
+    private int nextLive(int k) {
+        int live = k;
+        while (zNextLive[live] != live) {
+            live = zNextLive[live];
+        }
+        // compress the path just walked
+        while (zNextLive[k] != live) {
+            int tmp = zNextLive[k];
+            zNextLive[k] = live;
+            k = tmp;
+        }
+        return live;
+    }
+
+    private boolean canBlock(int v) {
+        return isShared[v] || orientation(v) != CGAlgorithms.CLOCKWISE;
+    }
+
+    /**
+     * Tests whether the convex corner at b is an ear, by checking the
+     * blocking vertices whose Z-order code lies within the codes of the
+     * corners of the ear envelope. The Z-order curve is monotonic in both
+     * ordinates, so every vertex inside the envelope is in this range.
+     * @param b
+     *            the tip of the ear
+     * @return true if no vertex blocks the ear
+     */
+    public boolean isEar(int b) {
+        int a = prev[b];
+        int c = next[b];
+        earMinX = Math.min(x(a), Math.min(x(b), x(c)));
+        earMinY = Math.min(y(a), Math.min(y(b), y(c)));
+        earMaxX = Math.max(x(a), Math.max(x(b), x(c)));
+        earMaxY = Math.max(y(a), Math.max(y(b), y(c)));
+        int minZ = zOrder(earMinX, earMinY);
+        int maxZ = zOrder(earMaxX, earMaxY);
+        int k = nextLive(lowerBound(minZ));
+        while (k < zSize && zCode[k] <= maxZ) {
+            if (isBlocking(zVertex[k], a, b, c)) {
+                return false;
+            }
+            k = nextLive(k + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first position in the Z-order array with a code not less
+     * than the given one.
+     */
+    private int lowerBound(int code) {
+        int lo = 0;
+        int hi = zSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (zCode[mid] < code) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Tests whether vertex v prevents the corner a-b-c from being clipped. A
+     * convex vertex inside the ear implies a reflex one is inside too, so
+     * only blocking vertices are in the Z-order array.
+     */
+    private boolean isBlocking(int v, int a, int b, int c) {
+        if (x(v) < earMinX || x(v) > earMaxX || y(v) < earMinY
+                || y(v) > earMaxY) {
+            return false;
+        }
+        return predicate.isBlocking(a, b, c, v, prev[v], next[v]);
+    }
+
+    private double x(int v) {
+        return xy[2 * v];
+    }
+
+    private double y(int v) {
+        return xy[2 * v + 1];
+    }
+}
@@ -0,0 +1,110 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
+
+/**
+ * The tests which decide whether a vertex blocks an ear, for the shell and
+ * ring structures of the ear clippers. Vertices are referred to by index
+ * into a packed array, vertex v at xy[2v], xy[2v+1], and corners are CW.
+ */
+class EarPredicate {
+    private double[] xy;
+
+    /**
+     * @param xy
+     *            the packed vertex ordinates. The array is not copied
+     */
+    EarPredicate(double[] xy) {
+        this.xy = xy;
+    }
+
+    /**
+     * Sets the array the vertex indices refer to, when it has been
+     * reallocated.
+     */
+    void setOrdinates(double[] xy) {
+        this.xy = xy;
+    }
+
+    /**
+     * Tests whether v prevents the convex corner a-b-c from being clipped.
+     * It does if it lies in the corner triangle, or on its boundary. Another
+     * occurrence of the tip, created by a hole join, blocks only if one of
+     * its edges enters the corner, or both run along its sides.
+     * @param v
+     *            a vertex in the envelope of the corner
+     * @param in
+     *            the vertex before v on its ring
+     * @param out
+     *            the vertex after v on its ring
+     */
+    boolean isBlocking(int a, int b, int c, int v, int in, int out) {
+        if (v == a || v == b || v == c) {
+            return false;
+        }
+        if (isCoincident(v, a) || isCoincident(v, c)) {
+            return false;
+        }
+        if (isCoincident(v, b)) {
+            return isInsideCorner(a, b, c, out)
+                    || isInsideCorner(a, b, c, in)
+                    || (isAlongRay(b, a, out) && isAlongRay(b, c, in));
+        }
+        return isInTriangle(a, b, c, v);
+    }
+
+    /**
+     * Tests whether the direction from b to p lies strictly inside the convex
+     * corner a-b-c.
+     */
+    boolean isInsideCorner(int a, int b, int c, int p) {
+        return orientationIndex(b, a, p) == CGAlgorithms.COUNTERCLOCKWISE
+                && orientationIndex(b, c, p) == CGAlgorithms.CLOCKWISE;
+    }
+
+    /**
+     * Tests whether p lies on the ray from b through a.
+     */
+    boolean isAlongRay(int b, int a, int p) {
+        if (orientationIndex(b, a, p) != CGAlgorithms.COLLINEAR) {
+            return false;
+        }
+        return (x(a) - x(b)) * (x(p) - x(b)) + (y(a) - y(b)) * (y(p) - y(b)) > 0;
+    }
+
+    /**
+     * Tests whether p is inside or on the boundary of the CW triangle a-b-c.
+     */
+    boolean isInTriangle(int a, int b, int c, int p) {
+        return orientationIndex(a, b, p) != CGAlgorithms.COUNTERCLOCKWISE
+                && orientationIndex(b, c, p) != CGAlgorithms.COUNTERCLOCKWISE
+                && orientationIndex(c, a, p) != CGAlgorithms.COUNTERCLOCKWISE;
+    }
+
+    boolean isCoincident(int u, int v) {
+        return x(u) == x(v) && y(u) == y(v);
+    }
+
+    int orientationIndex(int p1, int p2, int q) {
+        return orientationIndex(x(p1), y(p1), x(p2), y(p2), x(q), y(q));
+    }
+
+    /**
+     * Gets the orientation of c relative to the line from a to b. This is
+     * exact for any double ordinates, but a subclass can use a faster exact
+     * test where the ordinates allow one.
+     */
+    protected int orientationIndex(double ax, double ay, double bx,
+            double by, double cx, double cy) {
+        return TriPredicate.orientationIndex(ax, ay, bx, by, cx, cy);
+    }
+
+    private double x(int v) {
+        return xy[2 * v];
+    }
+
+    private double y(int v) {
+        return xy[2 * v + 1];
+    }
+}
@@ -0,0 +1,114 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.Arrays;
+
+/**
+ * A max-heap of ear vertices keyed by a quality score, stored in primitive
+ * arrays. Entries are invalidated lazily: each vertex carries a stamp which
+ * is bumped whenever the vertex changes, and entries with an older stamp are
+ * discarded when they reach the top of the heap.
+ */
+class EarQueue {
+    private int[] heapVertex;
+    private int[] heapStamp;
+    private double[] heapScore;
+    private int heapSize;
+    // current stamp of each vertex
+    private final int[] stamp;
+
+    /**
+     * Creates an empty queue.
+     * @param numVertices
+     *            the number of vertices in the shell
+     */
+    public EarQueue(int numVertices) {
+        int capacity = Math.max(16, numVertices);
+        heapVertex = new int[capacity];
+        heapStamp = new int[capacity];
+        heapScore = new double[capacity];
+        stamp = new int[numVertices];
+    }
+
+    /**
+     * Adds a vertex with the given score, replacing any earlier entry for it.
+     * @param v
+     *            shell index of the ear vertex
+     * @param score
+     *            quality of the ear, higher is better
+     */
+    public void add(int v, double score) {
+        stamp[v]++;
+        if (heapSize == heapVertex.length) {
+            int capacity = 2 * heapSize;
+            heapVertex = Arrays.copyOf(heapVertex, capacity);
+            heapStamp = Arrays.copyOf(heapStamp, capacity);
+            heapScore = Arrays.copyOf(heapScore, capacity);
+        }
+        int pos = heapSize++;
+        // sift up
+        while (pos > 0) {
+            int parent = (pos - 1) >> 1;
+            if (heapScore[parent] >= score) {
+                break;
+            }
+            set(pos, heapVertex[parent], heapStamp[parent], heapScore[parent]);
+            pos = parent;
+        }
+        set(pos, v, stamp[v], score);
+    }
+
+    /**
+     * Invalidates any entry for a vertex.
+     * @param v
+     */
+    public void remove(int v) {
+        stamp[v]++;
+    }
+
+    /**
+     * Removes the vertex with the best score from the queue.
+     * @return the vertex, or -1 if the queue holds no valid entry
+     */
+    public int poll() {
+        while (heapSize > 0) {
+            int v = heapVertex[0];
+            boolean isCurrent = heapStamp[0] == stamp[v];
+            removeTop();
+            if (isCurrent) {
+                stamp[v]++;
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    private void removeTop() {
+        heapSize--;
+        int v = heapVertex[heapSize];
+        int s = heapStamp[heapSize];
+        double score = heapScore[heapSize];
+        int pos = 0;
+        // sift down
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapScore[child + 1] > heapScore[child]) {
+                child++;
+            }
+            if (score >= heapScore[child]) {
+                break;
+            }
+            set(pos, heapVertex[child], heapStamp[child], heapScore[child]);
+            pos = child;
+        }
+        set(pos, v, s, score);
+    }
+
+    private void set(int pos, int v, int s, double score) {
+        heapVertex[pos] = v;
+        heapStamp[pos] = s;
+        heapScore[pos] = score;
+    }
+}
@@ -0,0 +1,113 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
+
+/**
+ * Triangulates a ring as a fan from one of its vertices, in linear time. This
+ * applies to convex rings, and to rings which are star-shaped from their only
+ * reflex vertex, such as L-shaped building footprints. Other rings are left
+ * to the ear clipper.
+ * <p>
+ * A fan is valid if every triangle of it has the orientation of the ring.
+ * For a simple ring the vertices are then in angular order around the apex,
+ * so the triangles cannot overlap.
+ */
+class FanTriangulator {
+    private FanTriangulator() {
+    }
+
+    /**
+     * Tests whether a polygon has no holes and its shell can be triangulated
+     * as a fan.
+     */
+    public static boolean isFan(Polygon poly) {
+        return poly.getNumInteriorRing() == 0
+                && findApex(poly.getExteriorRing().getCoordinates()) >= 0;
+    }
+
+    /**
+     * Finds the apex of a fan over the ring. If the ring is convex this is
+     * its smallest vertex, where the normalized ring starts. If it has one
+     * reflex vertex, only that one can be the apex.
+     * @param ring
+     *            closed ring in either orientation
+     * @return index of the apex, or -1 if the ring is not a fan
+     */
+    public static int findApex(Coordinate[] ring) {
+        int n = ring.length - 1;
+        if (n < 3) {
+            return -1;
+        }
+        int orientation = CGAlgorithms.isCCW(ring) ? CGAlgorithms.COUNTERCLOCKWISE
+                : CGAlgorithms.CLOCKWISE;
+        int apex = 0;
+        int reflex = -1;
+        for (int i = 0; i < n; i++) {
+            Coordinate prev = ring[i == 0 ? n - 1 : i - 1];
+            if (TriPredicate.orientationIndex(prev, ring[i], ring[i + 1]) == -orientation) {
+                if (reflex >= 0) {
+                    return -1;
+                }
+                reflex = i;
+            }
+            if (ring[i].compareTo(ring[apex]) < 0) {
+                apex = i;
+            }
+        }
+        if (reflex >= 0) {
+            apex = reflex;
+        }
+        return isFan(ring, apex, orientation) ? apex : -1;
+    }
+
+    /**
+     * Tests whether no triangle of the fan is reversed, and at least one has
+     * a non-zero area.
+     */
+    private static boolean isFan(Coordinate[] ring, int apex, int orientation) {
+        int n = ring.length - 1;
+        boolean hasArea = false;
+        for (int k = 1; k < n - 1; k++) {
+            int i = apex + k < n ? apex + k : apex + k - n;
+            int dir = TriPredicate.orientationIndex(ring[apex], ring[i],
+                    ring[i + 1]);
+            if (dir == -orientation) {
+                return false;
+            }
+            if (dir != CGAlgorithms.COLLINEAR) {
+                hasArea = true;
+            }
+        }
+        return hasArea;
+    }
+
+    /**
+     * Passes the triangles of the fan to the sink, oriented clockwise.
+     * Triangles of zero area, from vertices in line with the apex, are left
+     * out.
+     * @param ring
+     *            closed ring in either orientation
+     * @param apex
+     *            index of the apex, as found by {@link #findApex}
+     * @param sink
+     *            receives the triangles
+     */
+    public static void addFan(Coordinate[] ring, int apex, TriangleSink sink) {
+        int n = ring.length - 1;
+        Coordinate p0 = ring[apex];
+        for (int k = 1; k < n - 1; k++) {
+            int i = apex + k < n ? apex + k : apex + k - n;
+            Coordinate p1 = ring[i];
+            Coordinate p2 = ring[i + 1 == n ? 0 : i + 1];
+            int dir = TriPredicate.orientationIndex(p0, p1, p2);
+            if (dir == CGAlgorithms.CLOCKWISE) {
+                sink.addTriangle(p0, p1, p2);
+            } else if (dir == CGAlgorithms.COUNTERCLOCKWISE) {
+                sink.addTriangle(p0, p2, p1);
+            }
+        }
+    }
+}
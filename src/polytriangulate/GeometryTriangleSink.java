@@ -0,0 +1,29 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.ArrayList;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+/**
+ * Collects triangles as a GeometryCollection of Polygons.
+ */
+class GeometryTriangleSink implements TriangleSink {
+    private final GeometryFactory gf;
+    private final ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+
+    public GeometryTriangleSink(GeometryFactory gf) {
+        this.gf = gf;
+    }
+
+    public void addTriangle(Coordinate p0, Coordinate p1, Coordinate p2) {
+        geoms.add(gf.createPolygon(
+                gf.createLinearRing(new Coordinate[] { p0, p1, p2, p0 }), null));
+    }
+
+    public Geometry getResult() {
+        return gf.createGeometryCollection(GeometryFactory
+                .toGeometryArray(geoms));
+    }
+}
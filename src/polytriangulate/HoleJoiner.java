@@ -1,35 +1,104 @@
 package com.vividsolutions.jts.polytriangulate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.TreeSet;
 
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.algorithm.LineIntersector;
+import com.vividsolutions.jts.algorithm.RobustLineIntersector;
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
-import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineSegment;
 import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Location;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+import com.vividsolutions.jts.index.strtree.ItemBoundable;
+import com.vividsolutions.jts.index.strtree.ItemDistance;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
 
 public class HoleJoiner {
     private static final double EPS = 1.0E-4;
-    private final GeometryFactory gf;
-    private PreparedGeometry inputPrepGeom;
+    private final Polygon inputPolygon;
+    // all ring edges of the input polygon, as LineSegments
+    private final STRtree edgeIndex;
+    private final IndexedPointInAreaLocator locator;
+    private final LineIntersector li = new RobustLineIntersector();
+    // the bridges made so far, as LineSegments
+    private final Quadtree bridgeIndex = new Quadtree();
+    private boolean isRayCast = false;
+    private boolean isNearest = false;
     private List<Coordinate> shellCoords;
-    // orderedCoords a copy of shellCoords for sort purpose
-    private TreeSet<Coordinate> orderedCoords;
-    // Key: starting end of the cut; Value: list of the other end of the cut
-    private HashMap<Coordinate, ArrayList<Coordinate>> cutMap;
+    // shellCoords as a linked ring while the holes are spliced in
+    private SplicedRing ring;
+    // all vertices in sorted order, those in shellCoords marked as joined
+    private SortedVertexIndex orderedCoords;
+    // the y of the other ends of the cuts at each vertex slot, as lists
+    // linked through cutNext
+    private int[] cutHead;
+    private int[] cutNext;
+    private double[] cutY;
+    private int numCuts;
 
     public HoleJoiner(PreparedGeometry inputPrepGeom) {
-        this.inputPrepGeom = inputPrepGeom;
-        gf = inputPrepGeom.getGeometry().getFactory();
-        orderedCoords = new TreeSet<Coordinate>();
-        cutMap = new HashMap<Coordinate, ArrayList<Coordinate>>();
+        this((Polygon) inputPrepGeom.getGeometry());
+    }
+
+    /**
+     * @param inputPolygon
+     *            the normalized polygon whose holes are joined
+     */
+    public HoleJoiner(Polygon inputPolygon) {
+        this.inputPolygon = inputPolygon;
+        edgeIndex = createEdgeIndex(inputPolygon);
+        locator = new IndexedPointInAreaLocator(inputPolygon);
+    }
+
+    private static STRtree createEdgeIndex(Polygon poly) {
+        STRtree index = new STRtree();
+        for (int r = 0; r <= poly.getNumInteriorRing(); r++) {
+            LineString ring = r == 0 ? poly.getExteriorRing() : poly
+                    .getInteriorRingN(r - 1);
+            Coordinate[] pts = ring.getCoordinates();
+            for (int i = 0; i < pts.length - 1; i++) {
+                LineSegment edge = new LineSegment(pts[i], pts[i + 1]);
+                index.insert(new Envelope(pts[i], pts[i + 1]), edge);
+            }
+        }
+        index.build();
+        return index;
+    }
+
+    /**
+     * Sets whether a hole is bridged to the vertex found by casting a ray
+     * leftwards from its leftmost vertex, rather than by scanning the shell
+     * vertices to the left of it in coordinate order. The scan can test many
+     * vertices before it finds a visible one when there are many holes.
+     * @param isRayCast
+     */
+    public void setRayCast(boolean isRayCast) {
+        this.isRayCast = isRayCast;
+    }
+
+    /**
+     * Sets whether a hole is bridged to the nearest vertex of the shell or of
+     * a hole joined before it which is visible from one of its vertices,
+     * rather than to a vertex to the left of its leftmost vertex. The holes
+     * are joined outwards from the shell, each after the ring nearest to it,
+     * as {@link NearestHoleOrder} finds. This gives shorter bridges where
+     * the holes are not lined up along x. A hole for which no such vertex is
+     * found is bridged as usual.
+     * @param isNearest
+     */
+    public void setNearest(boolean isNearest) {
+        this.isNearest = isNearest;
     }
 
     /**
@@ -37,12 +106,38 @@ public class HoleJoiner {
      */
     public void joinHoles(List<Coordinate> shellCoords) {
         this.shellCoords = shellCoords;
-        orderedCoords.addAll(shellCoords);
-        List<Geometry> orderedHoles = getOrderedHoles((Polygon) inputPrepGeom
-                .getGeometry());
+        List<Geometry> orderedHoles = getOrderedHoles(inputPolygon);
+        if (orderedHoles.isEmpty()) {
+            return;
+        }
+        List<Coordinate[]> rings = new ArrayList<Coordinate[]>();
+        rings.add(shellCoords.toArray(new Coordinate[shellCoords.size()]));
         for (int i = 0; i < orderedHoles.size(); i++) {
-            joinHoleToShell(orderedHoles.get(i));
+            rings.add(orderedHoles.get(i).getCoordinates());
+        }
+        orderedCoords = new SortedVertexIndex(rings);
+        for (int i = 0; i < shellCoords.size(); i++) {
+            orderedCoords.setJoined(shellCoords.get(i));
+        }
+        cutHead = new int[orderedCoords.size()];
+        Arrays.fill(cutHead, -1);
+        cutNext = new int[2 * orderedHoles.size()];
+        cutY = new double[2 * orderedHoles.size()];
+        numCuts = 0;
+        ring = new SplicedRing(shellCoords, orderedCoords);
+        if (isNearest) {
+            NearestHoleOrder order = new NearestHoleOrder(orderedHoles,
+                    inputPolygon.getEnvelopeInternal());
+            for (int k = order.next(); k >= 0; k = order.next()) {
+                joinHoleToShell(orderedHoles.get(k), order.getDistance());
+            }
+        } else {
+            for (int i = 0; i < orderedHoles.size(); i++) {
+                joinHoleToShell(orderedHoles.get(i), 0);
+            }
         }
+        ring.copyTo(shellCoords);
+        ring = null;
     }
 
     /**
@@ -51,11 +146,41 @@ public class HoleJoiner {
      * ending points of the cut 4) selected ShellVertex may occurs multiple
      * times in shellCoords[], find the proper one and add the hole behind.
      * @param hole
+     * @param nearestDistance
+     *            the distance from the hole to the nearest ring joined, for
+     *            nearest bridging
      */
-    private void joinHoleToShell(Geometry hole) {
+    private void joinHoleToShell(Geometry hole, double nearestDistance) {
         final Coordinate[] holeCoords = hole.getCoordinates();
+        if (isRayCast || isNearest) {
+            // a hole touching a joined ring is spliced in where it touches
+            int touching = findJoinedVertex(holeCoords);
+            if (touching >= 0) {
+                doJoinHole(getWedgeShellCoordIndex(holeCoords[touching],
+                        holeCoords, touching), holeCoords, touching);
+                return;
+            }
+        }
+        if (isNearest && joinNearest(hole, holeCoords, nearestDistance)) {
+            return;
+        }
         ArrayList<Integer> holeLeftVerticesIndex = getLeftMostVertex(hole);
-        Coordinate holeCoord = holeCoords[holeLeftVerticesIndex.get(0)];
+        int holeIndex = holeLeftVerticesIndex.get(0);
+        Coordinate holeCoord = holeCoords[holeIndex];
+        if (isRayCast || isNearest) {
+            // bridges may now reach a vertex from any side, so they are
+            // not in cut order, the occurrence is chosen by angle and the
+            // vertex must not be behind a bridge
+            Coordinate visible = isRayCast ? findRayCastVertex(holeCoord)
+                    : null;
+            if (visible == null) {
+                visible = findVisibleLeftVertex(holeCoord);
+            }
+            doJoinHole(
+                    getWedgeShellCoordIndex(visible, holeCoords, holeIndex),
+                    holeCoords, holeIndex);
+            return;
+        }
         ArrayList<Coordinate> shellCoordsList = getLeftShellVertex(holeCoord);
         Coordinate shellCoord = shellCoordsList.get(0);
         int shortestHoleVertexIndex = 0;
@@ -75,53 +200,309 @@ public class HoleJoiner {
                 }
             }
         }
-        int shellVertexIndex = getShellCoordIndex(shellCoord,
+        int shellVertexNode = getShellCoordIndex(shellCoord,
                 holeCoords[holeLeftVerticesIndex.get(shortestHoleVertexIndex)]);
-        doJoinHole(shellVertexIndex, holeCoords,
+        doJoinHole(shellVertexNode, holeCoords,
                 holeLeftVerticesIndex.get(shortestHoleVertexIndex));
     }
 
+    /**
+     * Bridges a hole to the nearest joined vertex visible from one of its
+     * vertices. The joined vertices are found in the edge index within a
+     * window around the hole, which starts out reaching the nearest ring
+     * joined and is doubled until a visible pair is found or it covers the
+     * polygon. The pairs are tried in order of length, and each pair is
+     * tried once.
+     * @param hole
+     * @param holeCoords coordinates of the hole
+     * @param nearestDistance distance from the hole to the nearest ring
+     * @return false if no visible pair was found
+     */
+    private boolean joinNearest(Geometry hole, Coordinate[] holeCoords,
+            double nearestDistance) {
+        final int N = holeCoords.length - 1;
+        Envelope holeEnv = hole.getEnvelopeInternal();
+        Envelope polyEnv = inputPolygon.getEnvelopeInternal();
+        double radius = Math.max(nearestDistance,
+                Math.max(holeEnv.getWidth(), holeEnv.getHeight()) / 2);
+        if (radius == 0) {
+            radius = Math.max(polyEnv.getWidth(), polyEnv.getHeight()) / 16;
+        }
+        // pairs up to this length have been tried
+        double tried = 0;
+        Coordinate[] pairShell = new Coordinate[16];
+        int[] pairHole = new int[16];
+        // the length and number of each pair, to sort them by
+        double[] pairKey = new double[32];
+        while (true) {
+            Envelope window = new Envelope(holeEnv);
+            window.expandBy(radius);
+            int numPairs = 0;
+            @SuppressWarnings("unchecked")
+            List<LineSegment> edges = edgeIndex.query(window);
+            for (int i = 0; i < edges.size(); i++) {
+                // each vertex starts one edge of its ring
+                Coordinate v = edges.get(i).p0;
+                if (!isJoined(v)) {
+                    continue;
+                }
+                for (int j = 0; j < N; j++) {
+                    double d = holeCoords[j].distance(v);
+                    if (d <= tried || d > radius) {
+                        continue;
+                    }
+                    if (numPairs == pairHole.length) {
+                        pairShell = Arrays.copyOf(pairShell, 2 * numPairs);
+                        pairHole = Arrays.copyOf(pairHole, 2 * numPairs);
+                        pairKey = Arrays.copyOf(pairKey, 4 * numPairs);
+                    }
+                    pairShell[numPairs] = v;
+                    pairHole[numPairs] = j;
+                    pairKey[2 * numPairs] = d;
+                    pairKey[2 * numPairs + 1] = numPairs;
+                    numPairs++;
+                }
+            }
+            int[] order = new int[numPairs];
+            for (int i = 0; i < numPairs; i++) {
+                order[i] = i;
+            }
+            SortedVertexIndex.sort(order, new int[numPairs], 0, numPairs,
+                    pairKey);
+            for (int i = 0; i < numPairs; i++) {
+                int k = order[i];
+                Coordinate v = pairShell[k];
+                if (isVisible(holeCoords[pairHole[k]], v)) {
+                    doJoinHole(getWedgeShellCoordIndex(v, holeCoords,
+                            pairHole[k]), holeCoords, pairHole[k]);
+                    return true;
+                }
+            }
+            if (window.contains(polyEnv)) {
+                return false;
+            }
+            tried = radius;
+            radius *= 2;
+        }
+    }
+
+    /**
+     * Tests whether a joined vertex can be bridged to from a hole vertex.
+     * Unlike {@link #joinAble(Coordinate, Coordinate)}, the bridge must not
+     * touch the boundary between its ends, since the joined shell would then
+     * meet itself inside the bridge.
+     */
+    private boolean isVisible(Coordinate holeVertex, Coordinate v) {
+        return !crossesBridge(holeVertex, v)
+                && !touchesBoundary(holeVertex, v) && joinAble(holeVertex, v);
+    }
+
+    /**
+     * Tests whether a segment from a hole vertex to a joined vertex meets a
+     * ring edge anywhere but at its ends, or runs straight on into one. A
+     * straight corner is dropped by the ear clipper, which would leave the
+     * other occurrence of its vertex on an edge.
+     */
+    private boolean touchesBoundary(Coordinate holeVertex, Coordinate v) {
+        @SuppressWarnings("unchecked")
+        List<LineSegment> edges = edgeIndex.query(new Envelope(holeVertex, v));
+        for (int i = 0; i < edges.size(); i++) {
+            LineSegment edge = edges.get(i);
+            li.computeIntersection(holeVertex, v, edge.p0, edge.p1);
+            if (!li.hasIntersection()) {
+                continue;
+            }
+            if (li.getIntersectionNum() == 2) {
+                return true;
+            }
+            Coordinate p = li.getIntersection(0);
+            if (!p.equals2D(holeVertex) && !p.equals2D(v)) {
+                return true;
+            }
+            if (isStraight(holeVertex, v, edge)
+                    || isStraight(v, holeVertex, edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether an edge goes straight on from the segment a-b at b.
+     */
+    private static boolean isStraight(Coordinate a, Coordinate b,
+            LineSegment edge) {
+        Coordinate c;
+        if (edge.p0.equals2D(b)) {
+            c = edge.p1;
+        } else if (edge.p1.equals2D(b)) {
+            c = edge.p0;
+        } else {
+            return false;
+        }
+        return TriPredicate.orientationIndex(a, b, c) == CGAlgorithms.COLLINEAR
+                && (b.x - a.x) * (c.x - b.x) + (b.y - a.y) * (c.y - b.y) > 0;
+    }
+
+    /**
+     * Finds the joined vertex nearest in coordinate order to the left of a
+     * hole vertex which is visible from it, for when bridges made before
+     * need not run leftwards.
+     * @param holeCoord
+     * @return the visible vertex
+     */
+    private Coordinate findVisibleLeftVertex(Coordinate holeCoord) {
+        int slot = orderedCoords.floorX(holeCoord.x);
+        for (; slot >= 0; slot = orderedCoords.lower(slot)) {
+            Coordinate v = orderedCoords.getCoordinate(slot);
+            if (isVisible(holeCoord, v)) {
+                return v;
+            }
+        }
+        throw new IllegalStateException(
+                "Unable to find a visible vertex to bridge a hole to");
+    }
+
+    /**
+     * Tests whether a segment from a hole vertex to a joined vertex crosses
+     * or overlaps a bridge made before. Meeting a bridge at its end at the
+     * joined vertex is allowed.
+     */
+    private boolean crossesBridge(Coordinate holeVertex, Coordinate v) {
+        @SuppressWarnings("unchecked")
+        List<LineSegment> bridges = bridgeIndex.query(new Envelope(
+                holeVertex, v));
+        for (int i = 0; i < bridges.size(); i++) {
+            LineSegment bridge = bridges.get(i);
+            li.computeIntersection(holeVertex, v, bridge.p0, bridge.p1);
+            if (!li.hasIntersection()) {
+                continue;
+            }
+            if (li.isProper() || li.getIntersectionNum() == 2) {
+                return true;
+            }
+            Coordinate p = li.getIntersection(0);
+            if (!p.equals2D(v)
+                    || !(p.equals2D(bridge.p0) || p.equals2D(bridge.p1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the ith shellvertex in shellCoords[] that the current should add
      * after
      * @param shellVertex Coordinate of the shell vertex
      * @param holeVertex Coordinate of the hole vertex
-     * @return the ith shellvertex
+     * @return the ring node of the ith shellvertex
      */
     private int getShellCoordIndex(Coordinate shellVertex, Coordinate holeVertex) {
         int ith = 1;
-        ArrayList<Coordinate> newValueList = new ArrayList<Coordinate>();
-        newValueList.add(holeVertex);
-        if (cutMap.containsKey(shellVertex)) {
-            for (Coordinate coord : cutMap.get(shellVertex)) {
-                if (coord.y < holeVertex.y) {
-                    ith++;
-                }
+        int shellSlot = orderedCoords.getSlot(shellVertex);
+        int holeSlot = orderedCoords.getSlot(holeVertex);
+        for (int c = cutHead[shellSlot]; c >= 0; c = cutNext[c]) {
+            if (cutY[c] < holeVertex.y) {
+                ith++;
             }
-            cutMap.get(shellVertex).add(holeVertex);
-        } else {
-            cutMap.put(shellVertex, newValueList);
         }
-        if (!cutMap.containsKey(holeVertex)) {
-            cutMap.put(holeVertex, new ArrayList<Coordinate>(newValueList));
+        addCut(shellSlot, holeVertex.y);
+        if (cutHead[holeSlot] < 0) {
+            addCut(holeSlot, holeVertex.y);
         }
         return getIthShellCoordIndex(shellVertex, ith);
     }
 
+    private void addCut(int slot, double y) {
+        if (numCuts == cutY.length) {
+            cutNext = Arrays.copyOf(cutNext, 2 * numCuts);
+            cutY = Arrays.copyOf(cutY, 2 * numCuts);
+        }
+        cutY[numCuts] = y;
+        cutNext[numCuts] = cutHead[slot];
+        cutHead[slot] = numCuts;
+        numCuts++;
+    }
+
     /**
-     * Find the index of the coordinate in ShellCoords ArrayList
+     * Get the ring node of the occurrence of shellVertex whose interior wedge
+     * contains the direction to the hole vertex. The hole is added after this
+     * occurrence. If the hole touches the shell vertex, the direction to the
+     * next hole vertex is used instead.
+     * @param shellVertex Coordinate of the shell vertex
+     * @param holeCoords coordinates of the hole
+     * @param holeVertexIndex index of the hole vertex
+     * @return the ring node of the occurrence
+     */
+    private int getWedgeShellCoordIndex(Coordinate shellVertex,
+            Coordinate[] holeCoords, int holeVertexIndex) {
+        Coordinate holeVertex = holeCoords[holeVertexIndex];
+        if (holeVertex.equals2D(shellVertex)) {
+            holeVertex = holeCoords[(holeVertexIndex + 1)
+                    % (holeCoords.length - 1)];
+        }
+        int slot = orderedCoords.getSlot(shellVertex);
+        int first = -1;
+        int node = slot < 0 ? -1 : ring.firstOccurrence(slot);
+        for (; node >= 0; node = ring.nextOccurrence(node)) {
+            if (ring.isClosing(node)) {
+                continue;
+            }
+            if (first < 0) {
+                first = node;
+            }
+            Coordinate prev = ring.getCoordinate(ring.prev(node));
+            Coordinate next = ring.getCoordinate(ring.next(node));
+            if (isInWedge(prev, shellVertex, next, holeVertex)) {
+                return node;
+            }
+        }
+        if (first < 0) {
+            throw new IllegalStateException(
+                    "Request vertex is not in sheelcoords");
+        }
+        return first;
+    }
+
+    /**
+     * Tests whether the direction from b to p lies in the interior wedge of
+     * the CW shell at the corner a-b-c, which is on the right hand side.
+     */
+    private static boolean isInWedge(Coordinate a, Coordinate b,
+            Coordinate c, Coordinate p) {
+        int corner = TriPredicate.orientationIndex(a, b, c);
+        if (corner == CGAlgorithms.CLOCKWISE) {
+            return TriPredicate.orientationIndex(b, a, p) == CGAlgorithms.COUNTERCLOCKWISE
+                    && TriPredicate.orientationIndex(b, c, p) == CGAlgorithms.CLOCKWISE;
+        }
+        if (corner == CGAlgorithms.COUNTERCLOCKWISE) {
+            return !(TriPredicate.orientationIndex(b, c, p) == CGAlgorithms.COUNTERCLOCKWISE && TriPredicate
+                    .orientationIndex(b, a, p) == CGAlgorithms.CLOCKWISE);
+        }
+        double dot = (a.x - b.x) * (c.x - b.x) + (a.y - b.y) * (c.y - b.y);
+        if (dot > 0) {
+            // a spike, everything but the spike itself is inside
+            return true;
+        }
+        return TriPredicate.orientationIndex(a, b, p) == CGAlgorithms.CLOCKWISE;
+    }
+
+    /**
+     * Find the ring node of the ith occurrence of the coordinate
      * @param coord
      * @return
      */
     private int getIthShellCoordIndex(Coordinate coord, int ith) {
-        for (int i = 0; i < shellCoords.size(); i++) {
-            if (shellCoords.get(i).equals2D(coord, EPS)) {
-                --ith;
-                if (ith == 0)
-                    return i;
-            }
+        int slot = orderedCoords.getSlot(coord);
+        int node = slot < 0 ? -1 : ring.firstOccurrence(slot);
+        for (int i = 1; i < ith && node >= 0; i++) {
+            node = ring.nextOccurrence(node);
         }
-        throw new IllegalStateException("Request vertex is not in sheelcoords");
+        if (node < 0) {
+            throw new IllegalStateException(
+                    "Request vertex is not in sheelcoords");
+        }
+        return node;
     }
 
     /**
@@ -133,53 +514,241 @@ public class HoleJoiner {
      */
     private ArrayList<Coordinate> getLeftShellVertex(Coordinate holeCoord) {
         ArrayList<Coordinate> list = new ArrayList<Coordinate>();
-        Coordinate closest = orderedCoords.higher(holeCoord);
-        while (closest.x == holeCoord.x) {
-            closest = orderedCoords.higher(closest);
-        }
-        do {
+        int first = orderedCoords.first();
+        int closest = orderedCoords.floorX(holeCoord.x);
+        while (!joinAble(holeCoord, orderedCoords.getCoordinate(closest))
+                && closest != first) {
             closest = orderedCoords.lower(closest);
-        } while (!joinAble(holeCoord, closest)
-                && !closest.equals(orderedCoords.first()));
-        list.add(closest);
-        if (closest.x != holeCoord.x)
+        }
+        list.add(orderedCoords.getCoordinate(closest));
+        if (orderedCoords.getX(closest) != holeCoord.x)
             return list;
-        double chosenX = closest.x;
+        double chosenX = orderedCoords.getX(closest);
         list.clear();
-        while (chosenX == closest.x) {
-            list.add(closest);
+        while (chosenX == orderedCoords.getX(closest)) {
+            list.add(orderedCoords.getCoordinate(closest));
             closest = orderedCoords.lower(closest);
-            if (closest == null)
+            if (closest < 0)
                 return list;
         }
         return list;
     }
 
     /**
-     * Determine if a linestring between two coordinates is covered
+     * Determine if a linestring between two coordinates is covered. The
+     * segment is covered if it crosses no ring edge, and each piece between
+     * the points where it touches the boundary lies in the polygon. A piece
+     * does not meet the boundary inside, so testing its midpoint is enough.
      * @param holeCoord
      * @param shellCoord
      * @return
      */
     private boolean joinAble(Coordinate holeCoord, Coordinate shellCoord) {
-        LineString join = gf.createLineString(new Coordinate[] { holeCoord,
-                shellCoord });
-        if (inputPrepGeom.covers(join)) {
-            return true;
+        double dx = shellCoord.x - holeCoord.x;
+        double dy = shellCoord.y - holeCoord.y;
+        boolean isAlongX = Math.abs(dx) >= Math.abs(dy);
+        if (dx == 0 && dy == 0) {
+            return isCovered(holeCoord.x, holeCoord.y);
         }
-        return false;
+        // positions of the boundary contacts along the segment
+        double[] frac = new double[8];
+        int numFrac = 0;
+        frac[numFrac++] = 0;
+        frac[numFrac++] = 1;
+        @SuppressWarnings("unchecked")
+        List<LineSegment> edges = edgeIndex.query(new Envelope(holeCoord,
+                shellCoord));
+        for (int i = 0; i < edges.size(); i++) {
+            LineSegment edge = edges.get(i);
+            li.computeIntersection(holeCoord, shellCoord, edge.p0, edge.p1);
+            if (!li.hasIntersection()) {
+                continue;
+            }
+            if (li.isProper()) {
+                return false;
+            }
+            for (int j = 0; j < li.getIntersectionNum(); j++) {
+                Coordinate p = li.getIntersection(j);
+                if (numFrac == frac.length) {
+                    frac = Arrays.copyOf(frac, 2 * numFrac);
+                }
+                frac[numFrac++] = isAlongX ? (p.x - holeCoord.x) / dx
+                        : (p.y - holeCoord.y) / dy;
+            }
+        }
+        Arrays.sort(frac, 0, numFrac);
+        for (int i = 1; i < numFrac; i++) {
+            if (frac[i] == frac[i - 1]) {
+                continue;
+            }
+            double mid = (frac[i - 1] + frac[i]) / 2;
+            if (!isCovered(holeCoord.x + mid * dx, holeCoord.y + mid * dy)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCovered(double x, double y) {
+        return locator.locate(new Coordinate(x, y)) != Location.EXTERIOR;
+    }
+
+    /**
+     * Finds a shell vertex visible from the leftmost vertex m of a hole, as
+     * described by Eberly for a rightward ray. The ray from m to the left
+     * first meets the shell at i on an edge. If i is a vertex it is taken.
+     * Otherwise p is the left end of that edge, and if no shell vertex lies
+     * in the triangle m-i-p then p is visible. If some do, the one making the
+     * smallest angle with the ray is visible. The vertex is checked as any
+     * other bridge end is, since bridges made before are not in the edge
+     * index.
+     * @param m
+     *            the leftmost vertex of the hole
+     * @return the visible vertex, or null if none was found
+     */
+    private Coordinate findRayCastVertex(Coordinate m) {
+        Envelope rayEnv = new Envelope(inputPolygon.getEnvelopeInternal()
+                .getMinX(), m.x, m.y, m.y);
+        double hitX = Double.NEGATIVE_INFINITY;
+        LineSegment hitEdge = null;
+        @SuppressWarnings("unchecked")
+        List<LineSegment> edges = edgeIndex.query(rayEnv);
+        @SuppressWarnings("unchecked")
+        List<LineSegment> bridges = bridgeIndex.query(rayEnv);
+        edges.addAll(bridges);
+        for (int i = 0; i < edges.size(); i++) {
+            LineSegment edge = edges.get(i);
+            if (!isJoined(edge.p0) || !isJoined(edge.p1)) {
+                continue;
+            }
+            double x = rayIntersectionX(edge, m);
+            if (x < m.x && x > hitX) {
+                hitX = x;
+                hitEdge = edge;
+            }
+        }
+        if (hitEdge == null) {
+            return null;
+        }
+        Coordinate hit = new Coordinate(hitX, m.y);
+        Coordinate p;
+        if (hit.equals2D(hitEdge.p0)) {
+            p = hitEdge.p0;
+        } else if (hit.equals2D(hitEdge.p1)) {
+            p = hitEdge.p1;
+        } else {
+            p = hitEdge.p0.x <= hitEdge.p1.x ? hitEdge.p0 : hitEdge.p1;
+            p = closestToRay(m, hit, p);
+        }
+        if (!isVisible(m, p)) {
+            return null;
+        }
+        return p;
+    }
+
+    /**
+     * Gets the x ordinate where the horizontal line through m meets an edge.
+     * @return the x ordinate, or +infinity if the edge does not meet it
+     */
+    private static double rayIntersectionX(LineSegment edge, Coordinate m) {
+        Coordinate a = edge.p0;
+        Coordinate b = edge.p1;
+        if (a.y == m.y && b.y == m.y) {
+            // along the ray, the end nearest to m is met first
+            return Math.max(a.x, b.x) < m.x ? Math.max(a.x, b.x) : Math.min(
+                    a.x, b.x);
+        }
+        if (a.y == m.y) {
+            return a.x;
+        }
+        if (b.y == m.y) {
+            return b.x;
+        }
+        if ((a.y < m.y) == (b.y < m.y)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return a.x + (m.y - a.y) * (b.x - a.x) / (b.y - a.y);
     }
 
     /**
-     * Add holeCoords to proper position. update ShellCoords and OrderedCoords
-     * @param shellVertexIndex
+     * Gets the shell vertex in the triangle m-i-p which makes the smallest
+     * angle with the ray from m to i, or p if there is none. Ties are broken
+     * by distance to m.
+     */
+    private Coordinate closestToRay(Coordinate m, Coordinate i, Coordinate p) {
+        Envelope triEnv = new Envelope(m, i);
+        triEnv.expandToInclude(p);
+        Coordinate best = p;
+        @SuppressWarnings("unchecked")
+        List<LineSegment> edges = edgeIndex.query(triEnv);
+        for (int k = 0; k < edges.size(); k++) {
+            LineSegment edge = edges.get(k);
+            // each vertex starts one edge of its ring
+            Coordinate v = edge.p0;
+            if (v.equals2D(m) || v.equals2D(p) || !isJoined(v)
+                    || !isInTriangle(m, i, p, v)) {
+                continue;
+            }
+            if (isCloserToRay(m, v, best)) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isInTriangle(Coordinate a, Coordinate b,
+            Coordinate c, Coordinate v) {
+        int o0 = TriPredicate.orientationIndex(a, b, v);
+        int o1 = TriPredicate.orientationIndex(b, c, v);
+        int o2 = TriPredicate.orientationIndex(c, a, v);
+        boolean hasCW = o0 < 0 || o1 < 0 || o2 < 0;
+        boolean hasCCW = o0 > 0 || o1 > 0 || o2 > 0;
+        return !(hasCW && hasCCW);
+    }
+
+    /**
+     * Tests whether v makes a smaller angle than u with the leftward ray
+     * from m, or the same angle at a smaller distance. Both are left of m.
+     */
+    private static boolean isCloserToRay(Coordinate m, Coordinate v,
+            Coordinate u) {
+        double vdx = m.x - v.x;
+        double vdy = Math.abs(v.y - m.y);
+        double udx = m.x - u.x;
+        double udy = Math.abs(u.y - m.y);
+        // compare the tangents vdy / vdx and udy / udx
+        double cross = vdy * udx - udy * vdx;
+        if (cross != 0) {
+            return cross < 0;
+        }
+        return vdx < udx;
+    }
+
+    private int findJoinedVertex(Coordinate[] holeCoords) {
+        for (int j = 0; j < holeCoords.length - 1; j++) {
+            if (isJoined(holeCoords[j])) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isJoined(Coordinate v) {
+        return orderedCoords.isJoined(v);
+    }
+
+    /**
+     * Add holeCoords in front of a ring node. update the ring and
+     * OrderedCoords
+     * @param shellVertexNode
      * @param holeCoords
      * @param holeVertexIndex
      */
-    private void doJoinHole(int shellVertexIndex, Coordinate[] holeCoords,
+    private void doJoinHole(int shellVertexNode, Coordinate[] holeCoords,
             int holeVertexIndex) {
-        List<Coordinate> newCoords = new ArrayList<Coordinate>();
-        newCoords.add(new Coordinate(shellCoords.get(shellVertexIndex)));
+        List<Coordinate> newCoords = new ArrayList<Coordinate>(
+                holeCoords.length + 1);
+        newCoords.add(new Coordinate(ring.getCoordinate(shellVertexNode)));
         final int N = holeCoords.length - 1;
         int i = holeVertexIndex;
         do {
@@ -187,8 +756,13 @@ public class HoleJoiner {
             i = (i + 1) % N;
         } while (i != holeVertexIndex);
         newCoords.add(new Coordinate(holeCoords[holeVertexIndex]));
-        shellCoords.addAll(shellVertexIndex, newCoords);
-        orderedCoords.addAll(newCoords);
+        ring.insertBefore(shellVertexNode, newCoords);
+        for (int k = 0; k < newCoords.size(); k++) {
+            orderedCoords.setJoined(newCoords.get(k));
+        }
+        LineSegment bridge = new LineSegment(newCoords.get(0),
+                newCoords.get(1));
+        bridgeIndex.insert(new Envelope(bridge.p0, bridge.p1), bridge);
     }
 
     /**
@@ -225,6 +799,152 @@ public class HoleJoiner {
         return list;
     }
 
+    /**
+     * Orders holes outwards from the shell, as Prim's algorithm does over the
+     * ring envelopes: the next hole is the one nearest to a ring taken
+     * before it. Each ring taken keeps an entry in a queue for the nearest
+     * hole not yet taken, which an STRtree of the hole envelopes finds. The
+     * distance from a hole to the shell is taken to the shell envelope, which
+     * is at least the distance to the shell itself.
+     * <p>
+     * The tree cannot drop a hole once built, so taken holes are skipped by
+     * their distance, and the tree is rebuilt from the holes left once half
+     * of those it holds are taken.
+     */
+    private static class NearestHoleOrder {
+        private final Envelope[] envs;
+        private final boolean[] isTaken;
+        // the holes by distance to the shell, as far as they are taken
+        private final int[] byShellDistance;
+        private final double[] shellDistance;
+        private int shellNext = 0;
+        // ring 0 is the shell and ring k + 1 is hole k
+        private final int[] nearest;
+        private final double[] nearestDistance;
+        private final EarQueue queue;
+        private STRtree holeIndex;
+        private int numIndexed;
+        private int numTakenIndexed;
+        private int numTaken = 0;
+        private double distance;
+        private final ItemDistance untakenDistance = new ItemDistance() {
+            public double distance(ItemBoundable a, ItemBoundable b) {
+                Object item = a.getItem() instanceof Integer ? a.getItem()
+                        : b.getItem();
+                if (isTaken[(Integer) item]) {
+                    return Double.MAX_VALUE;
+                }
+                return ((Envelope) a.getBounds()).distance((Envelope) b
+                        .getBounds());
+            }
+        };
+
+        NearestHoleOrder(List<Geometry> holes, Envelope shellEnv) {
+            int numHoles = holes.size();
+            envs = new Envelope[numHoles];
+            isTaken = new boolean[numHoles];
+            byShellDistance = new int[numHoles];
+            // distance and hole number, to sort by
+            double[] keys = new double[2 * numHoles];
+            shellDistance = new double[numHoles];
+            for (int k = 0; k < numHoles; k++) {
+                Envelope env = holes.get(k).getEnvelopeInternal();
+                envs[k] = env;
+                shellDistance[k] = Math.min(
+                        Math.min(env.getMinX() - shellEnv.getMinX(),
+                                shellEnv.getMaxX() - env.getMaxX()),
+                        Math.min(env.getMinY() - shellEnv.getMinY(),
+                                shellEnv.getMaxY() - env.getMaxY()));
+                keys[2 * k] = shellDistance[k];
+                keys[2 * k + 1] = k;
+                byShellDistance[k] = k;
+            }
+            SortedVertexIndex.sort(byShellDistance, new int[numHoles], 0,
+                    numHoles, keys);
+            nearest = new int[numHoles + 1];
+            nearestDistance = new double[numHoles + 1];
+            queue = new EarQueue(numHoles + 1);
+            buildIndex();
+            queueNearest(0);
+        }
+
+        /**
+         * Gets the next hole, and takes it.
+         * @return the hole number, or -1 once all are taken
+         */
+        int next() {
+            while (numTaken < envs.length) {
+                int r = queue.poll();
+                int k = nearest[r];
+                if (isTaken[k]) {
+                    queueNearest(r);
+                    continue;
+                }
+                isTaken[k] = true;
+                numTaken++;
+                numTakenIndexed++;
+                distance = nearestDistance[r];
+                if (numTaken < envs.length) {
+                    if (2 * numTakenIndexed > numIndexed) {
+                        buildIndex();
+                    }
+                    queueNearest(r);
+                    queueNearest(k + 1);
+                }
+                return k;
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the distance from the hole last taken to the ring it was
+         * taken for.
+         */
+        double getDistance() {
+            return distance;
+        }
+
+        /**
+         * Queues a ring taken with the nearest hole not yet taken.
+         */
+        private void queueNearest(int r) {
+            int k;
+            double d;
+            if (r == 0) {
+                while (shellNext < envs.length
+                        && isTaken[byShellDistance[shellNext]]) {
+                    shellNext++;
+                }
+                if (shellNext == envs.length) {
+                    return;
+                }
+                k = byShellDistance[shellNext];
+                d = shellDistance[k];
+            } else {
+                Envelope env = envs[r - 1];
+                k = (Integer) holeIndex.nearestNeighbour(env, env,
+                        untakenDistance);
+                d = env.distance(envs[k]);
+            }
+            nearest[r] = k;
+            nearestDistance[r] = d;
+            queue.add(r, -d);
+        }
+
+        private void buildIndex() {
+            holeIndex = new STRtree();
+            numIndexed = 0;
+            for (int k = 0; k < envs.length; k++) {
+                if (!isTaken[k]) {
+                    holeIndex.insert(envs[k], k);
+                    numIndexed++;
+                }
+            }
+            holeIndex.build();
+            numTakenIndexed = 0;
+        }
+    }
+
     private static class EnvelopeComparator implements Comparator<Geometry> {
         public int compare(Geometry o1, Geometry o2) {
             Envelope e1 = o1.getEnvelopeInternal();
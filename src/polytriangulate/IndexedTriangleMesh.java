@@ -0,0 +1,99 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A triangulation as an indexed mesh: an array of distinct vertices and an
+ * array holding three vertex indices for each triangle. This needs no JTS
+ * geometry and can be copied directly into vertex and index buffers.
+ * <p>
+ * The arrays are shared, not copied, when the mesh is created and when they
+ * are read, and {@link EarClipper} returns the same mesh each time. So
+ * callers must not change the arrays; copy them to modify the mesh.
+ */
+public class IndexedTriangleMesh {
+    // x and y of vertex i are at 2i and 2i + 1
+    private final double[] vertices;
+    // vertex indices of triangle i are at 3i, 3i + 1 and 3i + 2
+    private final int[] indices;
+
+    /**
+     * @param vertices
+     *            vertex ordinates as x, y pairs, which are not copied
+     * @param indices
+     *            three vertex indices per triangle, which are not copied
+     */
+    public IndexedTriangleMesh(double[] vertices, int[] indices) {
+        this.vertices = vertices;
+        this.indices = indices;
+    }
+
+    public int getNumVertices() {
+        return vertices.length / 2;
+    }
+
+    public int getNumTriangles() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Gets the vertex ordinates. The array is not copied and must not be
+     * changed.
+     * @return x, y pairs
+     */
+    public double[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Gets the vertex ordinates in single precision.
+     * @return a new array of x, y pairs
+     */
+    public float[] getVerticesAsFloat() {
+        float[] result = new float[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            result[i] = (float) vertices[i];
+        }
+        return result;
+    }
+
+    /**
+     * Gets the triangle vertex indices. The array is not copied and must not
+     * be changed.
+     * @return three indices per triangle
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Writes the vertex ordinates at the position of the buffer, in the
+     * buffer's byte order.
+     * @param buf
+     *            a buffer with at least 8 (double) or 4 (float) bytes
+     *            remaining per ordinate
+     * @param asFloat
+     *            if the ordinates are written in single precision
+     */
+    public void writeVertices(ByteBuffer buf, boolean asFloat) {
+        for (int i = 0; i < vertices.length; i++) {
+            if (asFloat) {
+                buf.putFloat((float) vertices[i]);
+            } else {
+                buf.putDouble(vertices[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the triangle vertex indices as ints at the position of the
+     * buffer, in the buffer's byte order.
+     * @param buf
+     *            a buffer with at least 4 bytes remaining per index
+     */
+    public void writeIndices(ByteBuffer buf) {
+        for (int i = 0; i < indices.length; i++) {
+            buf.putInt(indices[i]);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.Arrays;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * Collects triangles as an {@link IndexedTriangleMesh}. Vertices which occur
+ * in several triangles, or several times in the shell, are stored once. The
+ * triangles keep their orientation, which is clockwise for ears clipped from
+ * the shell and for the triangles the improver flips.
+ * <p>
+ * The vertices are found by an open-addressing hash table of vertex indices,
+ * hashed on the bits of the ordinates and compared with the stored ones, so
+ * no key objects are created.
+ */
+class IndexedTriangleMeshSink implements TriangleSink {
+    private static final int EMPTY = -1;
+
+    private double[] vertices;
+    private int[] indices;
+    private int numVertices = 0;
+    private int numIndices = 0;
+    // vertex indices, with the table at most half full
+    private int[] table;
+    // table.length - 1, a power of two less one
+    private int mask;
+
+    /**
+     * @param numVertices
+     *            expected number of vertices
+     */
+    public IndexedTriangleMeshSink(int numVertices) {
+        vertices = new double[2 * Math.max(3, numVertices)];
+        indices = new int[3 * Math.max(1, numVertices)];
+        initTable(Integer.highestOneBit(4 * Math.max(3, numVertices) - 1));
+    }
+
+    private void initTable(int capacity) {
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+    }
+
+    public void addTriangle(Coordinate p0, Coordinate p1, Coordinate p2) {
+        if (numIndices + 3 > indices.length) {
+            indices = Arrays.copyOf(indices, 2 * indices.length);
+        }
+        indices[numIndices++] = index(p0);
+        indices[numIndices++] = index(p1);
+        indices[numIndices++] = index(p2);
+    }
+
+    private int index(Coordinate p) {
+        int i = slot(p.x, p.y);
+        while (table[i] != EMPTY) {
+            int v = table[i];
+            if (vertices[2 * v] == p.x && vertices[2 * v + 1] == p.y) {
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        if (2 * numVertices + 2 > vertices.length) {
+            vertices = Arrays.copyOf(vertices, 2 * vertices.length);
+        }
+        vertices[2 * numVertices] = p.x;
+        vertices[2 * numVertices + 1] = p.y;
+        table[i] = numVertices++;
+        if (2 * numVertices > table.length) {
+            growTable();
+        }
+        return numVertices - 1;
+    }
+
+    private void growTable() {
+        initTable(2 * table.length);
+        for (int v = 0; v < numVertices; v++) {
+            int i = slot(vertices[2 * v], vertices[2 * v + 1]);
+            while (table[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            table[i] = v;
+        }
+    }
+
+    private int slot(double x, double y) {
+        // adding zero turns -0.0 into 0.0, which it compares equal to
+        long h = Double.doubleToLongBits(x + 0.0) * 0x9E3779B97F4A7C15L
+                + Double.doubleToLongBits(y + 0.0);
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public IndexedTriangleMesh getResult() {
+        return new IndexedTriangleMesh(Arrays.copyOf(vertices,
+                2 * numVertices), Arrays.copyOf(indices, numIndices));
+    }
+}
@@ -0,0 +1,486 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
+
+/**
+ * The rings of a polygon held in primitive arrays, each linked in both
+ * directions by node index. Ring 0 is the shell, which grows as holes are
+ * spliced into it. Joining a hole adds a second occurrence of the two bridge
+ * vertices, so there is room for two more nodes per hole.
+ * <p>
+ * Each node refers to a distinct vertex, numbered in order of first
+ * occurrence, so that the occurrences of a bridge end or a touching point
+ * give the same vertex id in the mesh. The rings are built from the
+ * coordinates of a polygon for {@link EarClipperR}, or from int ordinates
+ * for {@link EarClipperI}, which are exact as doubles and can be tested by
+ * overriding {@link #orientationIndex(double, double, double, double,
+ * double, double)}.
+ * <p>
+ * The nodes which can block an ear are kept in a {@link ReflexVertexIndex}
+ * : those which are reflex or collinear on their ring, and those occurring
+ * more than once. If any node lies in an ear, the one farthest from the
+ * base of the ear is of this kind, whether it is on the shell or on a hole.
+ */
+class PolygonRingsR {
+    // the input coordinate of each node, or null for int ordinates
+    private final Coordinate[] coords;
+    private final double[] xy;
+    private final int[] vertexOf;
+    // the first node of each distinct vertex
+    private final int[] vertexNode;
+    private final int numVertices;
+    private final int[] prev;
+    private final int[] next;
+    // the ring each node was created on
+    private final int[] ringOf;
+    private final int[] ringSize;
+    // true once the ring has been spliced into the shell
+    private final boolean[] isRingJoined;
+    // true if the vertex occurs more than once (touching rings, joins)
+    private final boolean[] isShared;
+    private final EarPredicate predicate;
+    private final ReflexVertexIndex reflexIndex;
+    private int numNodes;
+    // number of nodes on the shell
+    private int size;
+    // envelope of the ear being tested
+    private double earMinX;
+    private double earMinY;
+    private double earMaxX;
+    private double earMaxY;
+
+    /**
+     * @param poly
+     *            normalized polygon, with a CW shell and CCW holes
+     */
+    public PolygonRingsR(Polygon poly) {
+        this(getOrdinates(poly), getCoordinates(poly));
+    }
+
+    /**
+     * @param rings
+     *            the shell followed by the holes, each as x, y pairs in
+     *            either orientation. A closing point equal to the first one
+     *            is ignored
+     */
+    public PolygonRingsR(int[][] rings) {
+        this(getOrdinates(rings), null);
+    }
+
+    /**
+     * @param rings
+     *            the ordinates of a CW shell followed by CCW holes, without
+     *            closing points
+     * @param ringCoords
+     *            the coordinates of the rings, or null
+     */
+    private PolygonRingsR(double[][] rings, Coordinate[][] ringCoords) {
+        int numRings = rings.length;
+        int capacity = 2 * (numRings - 1);
+        for (int r = 0; r < numRings; r++) {
+            capacity += rings[r].length / 2;
+        }
+        coords = ringCoords == null ? null : new Coordinate[capacity];
+        xy = new double[2 * capacity];
+        vertexOf = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        ringOf = new int[capacity];
+        isShared = new boolean[capacity];
+        ringSize = new int[numRings];
+        isRingJoined = new boolean[numRings];
+        isRingJoined[0] = true;
+        predicate = new EarPredicate(xy) {
+            @Override
+            protected int orientationIndex(double ax, double ay, double bx,
+                    double by, double cx, double cy) {
+                return PolygonRingsR.this.orientationIndex(ax, ay, bx, by,
+                        cx, cy);
+            }
+        };
+        Envelope env = new Envelope();
+        for (int r = 0; r < numRings; r++) {
+            double[] ring = rings[r];
+            int first = numNodes;
+            int n = ring.length / 2;
+            for (int i = 0; i < n; i++) {
+                int v = numNodes++;
+                xy[2 * v] = ring[2 * i];
+                xy[2 * v + 1] = ring[2 * i + 1];
+                if (coords != null) {
+                    coords[v] = ringCoords[r][i];
+                }
+                env.expandToInclude(ring[2 * i], ring[2 * i + 1]);
+                prev[v] = i == 0 ? first + n - 1 : v - 1;
+                next[v] = i == n - 1 ? first : v + 1;
+                ringOf[v] = r;
+            }
+            ringSize[r] = n;
+        }
+        markShared();
+        vertexNode = new int[numNodes];
+        int m = 0;
+        for (int v = 0; v < numNodes; v++) {
+            if (vertexOf[v] == v) {
+                vertexNode[m] = v;
+                vertexOf[v] = m++;
+            } else {
+                vertexOf[v] = vertexOf[vertexOf[v]];
+            }
+        }
+        numVertices = m;
+        size = ringSize[0];
+        reflexIndex = new ReflexVertexIndex(env, capacity);
+        for (int v = 0; v < numNodes; v++) {
+            updateReflexIndex(v);
+        }
+    }
+
+    /**
+     * Refers each node to the first node at its point, and marks the nodes
+     * which share a point. Sorting brings equal points next to each other,
+     * and keeps the first node ahead of the others.
+     */
+    private void markShared() {
+        int[] order = new int[numNodes];
+        for (int v = 0; v < numNodes; v++) {
+            order[v] = v;
+        }
+        SortedVertexIndex.sort(order, new int[numNodes], 0, numNodes, xy);
+        for (int k = 0; k < numNodes; k++) {
+            int v = order[k];
+            int u = k > 0 ? order[k - 1] : -1;
+            if (u >= 0 && predicate.isCoincident(u, v)) {
+                vertexOf[v] = vertexOf[u];
+                isShared[u] = true;
+                isShared[v] = true;
+            } else {
+                vertexOf[v] = v;
+            }
+        }
+    }
+
+    private static LineString getRing(Polygon poly, int r) {
+        return r == 0 ? poly.getExteriorRing() : poly.getInteriorRingN(r - 1);
+    }
+
+    private static Coordinate[][] getCoordinates(Polygon poly) {
+        Coordinate[][] rings = new Coordinate[poly.getNumInteriorRing() + 1][];
+        for (int r = 0; r < rings.length; r++) {
+            rings[r] = getRing(poly, r).getCoordinates();
+        }
+        return rings;
+    }
+
+    private static double[][] getOrdinates(Polygon poly) {
+        double[][] rings = new double[poly.getNumInteriorRing() + 1][];
+        for (int r = 0; r < rings.length; r++) {
+            Coordinate[] pts = getRing(poly, r).getCoordinates();
+            rings[r] = new double[2 * (pts.length - 1)];
+            for (int i = 0; i < pts.length - 1; i++) {
+                rings[r][2 * i] = pts[i].x;
+                rings[r][2 * i + 1] = pts[i].y;
+            }
+        }
+        return rings;
+    }
+
+    /**
+     * Gets the ordinates of int rings with the shell CW and the holes CCW.
+     */
+    private static double[][] getOrdinates(int[][] rings) {
+        double[][] ords = new double[rings.length][];
+        for (int r = 0; r < rings.length; r++) {
+            int[] ring = rings[r];
+            int n = ringLength(ring);
+            boolean isReversed = isCCW(ring, n) == (r == 0);
+            ords[r] = new double[2 * n];
+            for (int i = 0; i < n; i++) {
+                int j = isReversed ? n - 1 - i : i;
+                ords[r][2 * i] = ring[2 * j];
+                ords[r][2 * i + 1] = ring[2 * j + 1];
+            }
+        }
+        return ords;
+    }
+
+    /**
+     * Gets the number of points in a ring, without a closing point.
+     */
+    private static int ringLength(int[] ring) {
+        int n = ring.length / 2;
+        if (n > 1 && ring[0] == ring[2 * n - 2] && ring[1] == ring[2 * n - 1]) {
+            n--;
+        }
+        return n;
+    }
+
+    /**
+     * Tests whether a ring is CCW by the sign of its area. The cross products
+     * are exact, and are summed in double since their sum may overflow.
+     */
+    private static boolean isCCW(int[] ring, int n) {
+        double area2 = 0;
+        for (int i = 0; i < n; i++) {
+            int j = i == n - 1 ? 0 : i + 1;
+            area2 += (long) ring[2 * i] * ring[2 * j + 1] - (long) ring[2 * j]
+                    * ring[2 * i + 1];
+        }
+        return area2 > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int prev(int v) {
+        return prev[v];
+    }
+
+    public int next(int v) {
+        return next[v];
+    }
+
+    /**
+     * Gets the number of distinct vertices.
+     */
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Gets the distinct vertex a node is at.
+     */
+    public int vertexOf(int v) {
+        return vertexOf[v];
+    }
+
+    public double getVertexX(int vertex) {
+        return x(vertexNode[vertex]);
+    }
+
+    public double getVertexY(int vertex) {
+        return y(vertexNode[vertex]);
+    }
+
+    /**
+     * Gets the first input coordinate of a distinct vertex.
+     * @return the coordinate, or null if the rings were given as int
+     *         ordinates
+     */
+    public Coordinate getVertexCoordinate(int vertex) {
+        return coords == null ? null : coords[vertexNode[vertex]];
+    }
+
+    /**
+     * Tests whether v is on a hole which has not been joined to the shell.
+     */
+    public boolean isInHole(int v) {
+        return !isRingJoined[ringOf[v]];
+    }
+
+    /**
+     * Gets the orientation of the corner formed by v and its neighbours.
+     */
+    public int orientation(int v) {
+        return predicate.orientationIndex(prev[v], v, next[v]);
+    }
+
+    /**
+     * Removes a node from the shell, and drops its neighbours from the
+     * reflex index if they have become convex.
+     */
+    public void remove(int v) {
+        int p = prev[v];
+        int n = next[v];
+        next[p] = n;
+        prev[n] = p;
+        reflexIndex.remove(v);
+        size--;
+        updateReflexIndex(p);
+        updateReflexIndex(n);
+    }
+
+    /**
+     * Adds the node to the index if it can block an ear, and removes it if
+     * it cannot any more. A convex node never becomes reflex again while
+     * ears are clipped, so removal is permanent.
+     */
+    private void updateReflexIndex(int v) {
+        if (isShared[v] || orientation(v) != CGAlgorithms.CLOCKWISE) {
+            reflexIndex.insert(v, x(v), y(v));
+        } else {
+            reflexIndex.remove(v);
+        }
+    }
+
+    /**
+     * Finds a node of any ring which prevents the convex corner at b from
+     * being clipped.
+     * @param b
+     *            the tip of the ear
+     * @return a blocking node, or -1 if the corner is an ear
+     */
+    public int findBlocker(int b) {
+        int a = prev[b];
+        int c = next[b];
+        setEarEnvelope(a, b, c);
+        int cellMaxX = reflexIndex.cellX(earMaxX);
+        int cellMaxY = reflexIndex.cellY(earMaxY);
+        for (int cy = reflexIndex.cellY(earMinY); cy <= cellMaxY; cy++) {
+            for (int cx = reflexIndex.cellX(earMinX); cx <= cellMaxX; cx++) {
+                for (int v = reflexIndex.first(cx, cy); v >= 0; v = reflexIndex
+                        .next(v)) {
+                    if (isBlocking(v, a, b, c)) {
+                        return v;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splices a hole blocking the convex corner at b into the shell. Of the
+     * nodes in the ear, the one farthest from the line a-c is visible from
+     * b: no node lies beyond it, so no edge can cross the segment between
+     * them. If that node is on a hole, the hole is joined by a bridge to b.
+     * A hole touching b is joined at the touching node without a bridge.
+     * @param b
+     *            the tip of a blocked ear
+     * @return false if the farthest node is on the shell
+     */
+    public boolean joinHole(int b) {
+        int a = prev[b];
+        int c = next[b];
+        setEarEnvelope(a, b, c);
+        int best = -1;
+        double bestDist = -1;
+        int cellMaxX = reflexIndex.cellX(earMaxX);
+        int cellMaxY = reflexIndex.cellY(earMaxY);
+        for (int cy = reflexIndex.cellY(earMinY); cy <= cellMaxY; cy++) {
+            for (int cx = reflexIndex.cellX(earMinX); cx <= cellMaxX; cx++) {
+                for (int v = reflexIndex.first(cx, cy); v >= 0; v = reflexIndex
+                        .next(v)) {
+                    if (!isBlocking(v, a, b, c)) {
+                        continue;
+                    }
+                    if (predicate.isCoincident(v, b) && isInHole(v)) {
+                        joinTouchingHole(b, v);
+                        return true;
+                    }
+                    double dist = Math.abs((x(c) - x(a)) * (y(v) - y(a))
+                            - (y(c) - y(a)) * (x(v) - x(a)));
+                    if (dist > bestDist) {
+                        bestDist = dist;
+                        best = v;
+                    }
+                }
+            }
+        }
+        if (best < 0 || !isInHole(best)) {
+            return false;
+        }
+        joinBridgedHole(b, best);
+        return true;
+    }
+
+    /**
+     * Joins the hole of r to the shell by a bridge from b, going round the
+     * hole from r and back to b over second occurrences of r and b.
+     */
+    private void joinBridgedHole(int b, int r) {
+        int c = next[b];
+        int rPrev = prev[r];
+        int rDup = addDuplicate(r);
+        int bDup = addDuplicate(b);
+        link(b, r);
+        link(rPrev, rDup);
+        link(rDup, bDup);
+        link(bDup, c);
+        isShared[b] = true;
+        isShared[r] = true;
+        size += ringSize[ringOf[r]] + 2;
+        isRingJoined[ringOf[r]] = true;
+        updateReflexIndex(b);
+        updateReflexIndex(r);
+        updateReflexIndex(rDup);
+        updateReflexIndex(bDup);
+    }
+
+    /**
+     * Joins the hole of r, which is at the same point as b, to the shell.
+     * Going round the hole from b ends at r, which leads on to the old
+     * successor of b.
+     */
+    private void joinTouchingHole(int b, int r) {
+        int c = next[b];
+        link(b, next[r]);
+        link(r, c);
+        size += ringSize[ringOf[r]];
+        isRingJoined[ringOf[r]] = true;
+        updateReflexIndex(b);
+        updateReflexIndex(r);
+    }
+
+    private int addDuplicate(int v) {
+        int dup = numNodes++;
+        if (coords != null) {
+            coords[dup] = coords[v];
+        }
+        xy[2 * dup] = xy[2 * v];
+        xy[2 * dup + 1] = xy[2 * v + 1];
+        vertexOf[dup] = vertexOf[v];
+        ringOf[dup] = 0;
+        isShared[dup] = true;
+        return dup;
+    }
+
+    private void link(int from, int to) {
+        next[from] = to;
+        prev[to] = from;
+    }
+
+    private void setEarEnvelope(int a, int b, int c) {
+        earMinX = Math.min(x(a), Math.min(x(b), x(c)));
+        earMinY = Math.min(y(a), Math.min(y(b), y(c)));
+        earMaxX = Math.max(x(a), Math.max(x(b), x(c)));
+        earMaxY = Math.max(y(a), Math.max(y(b), y(c)));
+    }
+
+    /**
+     * Tests whether node v prevents the corner a-b-c from being clipped.
+     */
+    private boolean isBlocking(int v, int a, int b, int c) {
+        if (x(v) < earMinX || x(v) > earMaxX || y(v) < earMinY
+                || y(v) > earMaxY) {
+            return false;
+        }
+        return predicate.isBlocking(a, b, c, v, prev[v], next[v]);
+    }
+
+    /**
+     * Gets the orientation of c relative to the line from a to b, for all
+     * the clipping and bridging tests made through {@link EarPredicate}.
+     * This is exact for any double ordinates, but a subclass can use a
+     * faster exact test where the ordinates allow one. It is called while
+     * the rings are built, before the fields of a subclass are set.
+     */
+    protected int orientationIndex(double ax, double ay, double bx,
+            double by, double cx, double cy) {
+        return TriPredicate.orientationIndex(ax, ay, bx, by, cx, cy);
+    }
+
+    private double x(int v) {
+        return xy[2 * v];
+    }
+
+    private double y(int v) {
+        return xy[2 * v + 1];
+    }
+}
@@ -0,0 +1,491 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.List;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateList;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * The shell being clipped. Vertex positions are packed in a primitive array
+ * and the available vertices are linked in both directions by index, so the
+ * ear tests never touch Coordinate objects.
+ */
+class PolygonShellM {
+    /**
+     * The shell coordinates are maintain in CW order. This means that for
+     * convex interior angles, the vertices forming the angle are in CW
+     * orientation. Vertex i is at xy[2i], xy[2i+1].
+     */
+    private double[] xy = new double[0];
+    private int[] shellCoordAvailable = new int[0];
+    // index of the previous available coordinate, the reverse of
+    // shellCoordAvailable
+    private int[] shellCoordPrev = new int[0];
+    // true if the coordinate occurs more than once in the shell (hole joins)
+    private boolean[] isShared = new boolean[0];
+    // the first occurrence of each vertex, and for that one the number of
+    // occurrences still available
+    private int[] firstOccurrence = new int[0];
+    private int[] numAvailable = new int[0];
+    // orientation of the corner formed by each vertex and its neighbours
+    private int[] cornerOrientation = new int[0];
+    /**
+     * The vertex which blocked the corner at each vertex rejected as an ear,
+     * or -1. A rejection holds until the corner or its blocker changes: the
+     * neighbours of either are removed, or the blocker is. The rejected
+     * corners are linked in a list per blocker, so that they can be released
+     * when it changes.
+     */
+    private int[] blockerOf = new int[0];
+    private int[] blockedHead = new int[0];
+    private int[] blockedNext = new int[0];
+    private int[] blockedPrev = new int[0];
+    // corners released by the last removal
+    private int[] released = new int[0];
+    private int numReleased;
+    // vertices which may lie inside a convex corner
+    private ReflexVertexIndex reflexIndex;
+    // vertex numbers sorted by coordinate, to find shared vertices
+    private int[] sortOrder = new int[0];
+    private int[] sortTmp = new int[0];
+    private final EarPredicate predicate = new EarPredicate(xy);
+    private final Envelope env = new Envelope();
+    private int size;
+    // index for current candidate corner
+    public int[] cornerCandidate = new int[3];
+    // first available coordinate index
+    private int firstAvailable;
+
+    /**
+     * Creates an empty shell, to be set with {@link #init}.
+     */
+    public PolygonShellM() {
+    }
+
+    /**
+     * @param shellCoords
+     *            closed CW shell ring. It is copied, so later changes to the
+     *            list do not affect the shell
+     */
+    public PolygonShellM(List<Coordinate> shellCoords) {
+        init(shellCoords);
+    }
+
+    /**
+     * Sets up the shell for a new ring. The arrays are only reallocated if
+     * they are too small for it.
+     * @param shellCoords
+     *            closed CW shell ring. It is copied, so later changes to the
+     *            list do not affect the shell
+     */
+    public void init(List<Coordinate> shellCoords) {
+        size = shellCoords.size() - 1;
+        if (shellCoordAvailable.length < size) {
+            xy = new double[2 * size];
+            shellCoordAvailable = new int[size];
+            shellCoordPrev = new int[size];
+            isShared = new boolean[size];
+            firstOccurrence = new int[size];
+            numAvailable = new int[size];
+            cornerOrientation = new int[size];
+            blockerOf = new int[size];
+            blockedHead = new int[size];
+            blockedNext = new int[size];
+            blockedPrev = new int[size];
+            released = new int[size];
+            sortOrder = new int[size];
+            sortTmp = new int[size];
+            predicate.setOrdinates(xy);
+        }
+        env.setToNull();
+        for (int i = 0; i < size; i++) {
+            Coordinate p = shellCoords.get(i);
+            xy[2 * i] = p.x;
+            xy[2 * i + 1] = p.y;
+            env.expandToInclude(p);
+            shellCoordAvailable[i] = i + 1;
+            shellCoordPrev[i] = i - 1;
+            isShared[i] = false;
+            numAvailable[i] = 0;
+            blockerOf[i] = -1;
+            blockedHead[i] = -1;
+            sortOrder[i] = i;
+        }
+        markShared();
+        shellCoordAvailable[size - 1] = 0;
+        shellCoordPrev[0] = size - 1;
+        cornerCandidate[0] = 0;
+        cornerCandidate[1] = 1;
+        cornerCandidate[2] = 2;
+        firstAvailable = 0;
+        numReleased = 0;
+        if (reflexIndex == null) {
+            reflexIndex = new ReflexVertexIndex(env, size);
+        } else {
+            reflexIndex.init(env, size);
+        }
+        for (int i = 0; i < size; i++) {
+            classify(i);
+            updateReflexIndex(i);
+        }
+    }
+
+    /**
+     * Marks the vertices which occur more than once and counts their
+     * occurrences. Sorting brings equal vertices next to each other.
+     */
+    private void markShared() {
+        SortedVertexIndex.sort(sortOrder, sortTmp, 0, size, xy);
+        for (int k = 0; k < size; k++) {
+            int v = sortOrder[k];
+            firstOccurrence[v] = v;
+            if (k > 0) {
+                int u = sortOrder[k - 1];
+                if (predicate.isCoincident(u, v)) {
+                    isShared[u] = true;
+                    isShared[v] = true;
+                    firstOccurrence[v] = firstOccurrence[u];
+                }
+            }
+            numAvailable[firstOccurrence[v]]++;
+        }
+    }
+
+    /**
+     * Adds the vertex to the index if it can block an ear, and removes it if
+     * it cannot any more. A convex vertex never becomes reflex again while
+     * ears are clipped, so removal is permanent.
+     */
+    private void updateReflexIndex(int v) {
+        if (isShared[v] || !isConvex(v)) {
+            reflexIndex.insert(v, x(v), y(v));
+        } else {
+            reflexIndex.remove(v);
+        }
+    }
+
+    /**
+     * Computes the orientation of the corner at v from its current
+     * neighbours.
+     */
+    private void classify(int v) {
+        cornerOrientation[v] = predicate.orientationIndex(shellCoordPrev[v],
+                v, shellCoordAvailable[v]);
+    }
+
+    private boolean isConvex(int v) {
+        return cornerOrientation[v] == CGAlgorithms.CLOCKWISE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the orientation of the current candidate corner.
+     * @return the orientation of corner[0], corner[1], corner[2]
+     */
+    public int getCornerOrientation() {
+        return cornerOrientation[cornerCandidate[1]];
+    }
+
+    /**
+     * Check if the current corner candidate is a valid ear. A corner which
+     * has been rejected is not tested again until it or the vertex which
+     * blocked it changes, so the result is always the same as a new test.
+     * @return
+     */
+    public boolean isValidEarFast() {
+        return isUnblocked(cornerCandidate[1]);
+    }
+
+    /**
+     * Tests whether the convex corner at v is not blocked, keeping the vertex
+     * which blocks it until either changes.
+     */
+    private boolean isUnblocked(int v) {
+        if (blockerOf[v] >= 0) {
+            return false;
+        }
+        int blocker = findBlocker(shellCoordPrev[v], v, shellCoordAvailable[v]);
+        if (blocker < 0) {
+            return true;
+        }
+        reject(v, blocker);
+        return false;
+    }
+
+    /**
+     * Records that the corner at v is not an ear because of blocker.
+     */
+    private void reject(int v, int blocker) {
+        blockerOf[v] = blocker;
+        blockedPrev[v] = -1;
+        blockedNext[v] = blockedHead[blocker];
+        if (blockedHead[blocker] >= 0) {
+            blockedPrev[blockedHead[blocker]] = v;
+        }
+        blockedHead[blocker] = v;
+    }
+
+    /**
+     * Drops the rejection of the corner at v, if there is one.
+     */
+    private void unreject(int v) {
+        int blocker = blockerOf[v];
+        if (blocker < 0) {
+            return;
+        }
+        int prev = blockedPrev[v];
+        int next = blockedNext[v];
+        if (prev >= 0) {
+            blockedNext[prev] = next;
+        } else {
+            blockedHead[blocker] = next;
+        }
+        if (next >= 0) {
+            blockedPrev[next] = prev;
+        }
+        blockerOf[v] = -1;
+    }
+
+    /**
+     * Drops the rejections of all corners blocked by a vertex, and records
+     * them as released.
+     */
+    private void releaseBlocked(int blocker) {
+        for (int v = blockedHead[blocker]; v >= 0; v = blockedNext[v]) {
+            blockerOf[v] = -1;
+            released[numReleased++] = v;
+        }
+        blockedHead[blocker] = -1;
+    }
+
+    /**
+     * Gets the number of corners whose rejection was dropped by the last
+     * {@link #remove(int)} because the vertex blocking them changed. These
+     * may have become ears although they are not next to the removed vertex.
+     * @return
+     */
+    public int getNumReleased() {
+        return numReleased;
+    }
+
+    /**
+     * Gets a corner released by the last {@link #remove(int)}.
+     * @param i
+     *            index below {@link #getNumReleased()}
+     * @return shell index of the vertex
+     */
+    public int getReleased(int i) {
+        return released[i];
+    }
+
+    /**
+     * Check if the current corner candidate is valid without using cover().
+     * Only the vertices held in the reflex index which lie in the envelope
+     * of the corner are examined: if a convex vertex lies inside the corner
+     * triangle, a reflex one does too.
+     * @return the first vertex found which blocks the corner, or -1 if it is
+     *         an ear
+     */
+    private int findBlocker(int c0, int c1, int c2) {
+        double minX = Math.min(x(c0), Math.min(x(c1), x(c2)));
+        double maxX = Math.max(x(c0), Math.max(x(c1), x(c2)));
+        double minY = Math.min(y(c0), Math.min(y(c1), y(c2)));
+        double maxY = Math.max(y(c0), Math.max(y(c1), y(c2)));
+        int cellMaxX = reflexIndex.cellX(maxX);
+        int cellMaxY = reflexIndex.cellY(maxY);
+        for (int cy = reflexIndex.cellY(minY); cy <= cellMaxY; cy++) {
+            for (int cx = reflexIndex.cellX(minX); cx <= cellMaxX; cx++) {
+                for (int i = reflexIndex.first(cx, cy); i >= 0; i = reflexIndex
+                        .next(i)) {
+                    double vx = x(i);
+                    double vy = y(i);
+                    if (vx < minX || vx > maxX || vy < minY || vy > maxY) {
+                        continue;
+                    }
+                    if (predicate.isBlocking(c0, c1, c2, i,
+                            shellCoordPrev[i], shellCoordAvailable[i])) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if an available vertex is currently a valid ear. A rejection is
+     * kept as in {@link #isValidEarFast()}, and reported by
+     * {@link #getReleased(int)} once it is dropped.
+     * @param v
+     *            shell index of the vertex
+     * @return
+     */
+    public boolean isEar(int v) {
+        return isConvex(v) && isUnblocked(v);
+    }
+
+    /**
+     * Tests whether a collinear corner has to stay. A straight corner at a
+     * vertex which still occurs elsewhere in the shell is kept, since the
+     * merged edge would run through the other occurrence and block every ear
+     * along it.
+     * @param v
+     *            shell index of the vertex
+     * @return
+     */
+    public boolean isKeptCollinear(int v) {
+        if (numAvailable[firstOccurrence[v]] < 2) {
+            return false;
+        }
+        int a = shellCoordPrev[v];
+        int c = shellCoordAvailable[v];
+        return (x(a) - x(v)) * (x(c) - x(v)) + (y(a) - y(v)) * (y(c) - y(v)) < 0;
+    }
+
+    /**
+     * Computes the quality of the triangle formed by v and its neighbours, as
+     * 4 * sqrt(3) * area / (sum of squared edge lengths). This is 1 for an
+     * equilateral triangle and tends to 0 for slivers.
+     * @param v
+     *            shell index of the vertex
+     * @return
+     */
+    public double earQuality(int v) {
+        int a = shellCoordPrev[v];
+        int c = shellCoordAvailable[v];
+        double abX = x(v) - x(a);
+        double abY = y(v) - y(a);
+        double bcX = x(c) - x(v);
+        double bcY = y(c) - y(v);
+        double caX = x(a) - x(c);
+        double caY = y(a) - y(c);
+        double sumSq = abX * abX + abY * abY + bcX * bcX + bcY * bcY + caX
+                * caX + caY * caY;
+        if (sumSq == 0) {
+            return 0;
+        }
+        double area2 = Math.abs(abX * bcY - abY * bcX);
+        return 2 * Math.sqrt(3) * area2 / sumSq;
+    }
+
+    private double x(int v) {
+        return xy[2 * v];
+    }
+
+    private double y(int v) {
+        return xy[2 * v + 1];
+    }
+
+    /**
+     * Remove corner[1] and update the candidate corner.
+     */
+    public void remove() {
+        remove(cornerCandidate[1]);
+    }
+
+    /**
+     * Remove an available vertex. The candidate corner becomes the one
+     * centred on the vertex which followed it.
+     * @param v
+     *            shell index of the vertex
+     */
+    public void remove(int v) {
+        int prev = shellCoordPrev[v];
+        int next = shellCoordAvailable[v];
+        if (firstAvailable == v) {
+            firstAvailable = next;
+        }
+        shellCoordAvailable[prev] = next;
+        shellCoordPrev[next] = prev;
+        shellCoordAvailable[v] = -1;
+        numAvailable[firstOccurrence[v]]--;
+        numReleased = 0;
+        reflexIndex.remove(v);
+        unreject(v);
+        releaseBlocked(v);
+        size--;
+        cornerCandidate[0] = prev;
+        nextCorner(false);
+        if (size >= 3) {
+            updateNeighbour(cornerCandidate[0]);
+            updateNeighbour(cornerCandidate[1]);
+        }
+    }
+
+    /**
+     * Reclassifies a vertex whose neighbour has been removed. Its own corner
+     * and the edges it could block corners with have changed.
+     */
+    private void updateNeighbour(int v) {
+        classify(v);
+        unreject(v);
+        releaseBlocked(v);
+        updateReflexIndex(v);
+    }
+
+    /**
+     * Get the shell indices of the current candidate corner. The array is
+     * updated in place as the candidate moves.
+     * @return
+     */
+    public int[] getCornerCandidateIndex() {
+        return cornerCandidate;
+    }
+
+    /**
+     * Set to next corner candidate.
+     * @param moveFirst
+     *            if corner[0] should be moved to next available coordinates.
+     */
+    public void nextCorner(boolean moveFirst) {
+        if (size < 3) {
+            return;
+        }
+        if (moveFirst) {
+            cornerCandidate[0] = nextIndex(cornerCandidate[0]);
+        }
+        cornerCandidate[1] = nextIndex(cornerCandidate[0]);
+        cornerCandidate[2] = nextIndex(cornerCandidate[1]);
+    }
+
+    /**
+     * Get the index of the next available shell coordinate starting from the
+     * given candidate position.
+     * @param pos
+     *            candidate position
+     * @return index of the next available shell coordinate
+     */
+    public int nextIndex(int pos) {
+        return shellCoordAvailable[pos];
+    }
+
+    /**
+     * Get the index of the previous available shell coordinate.
+     * @param pos
+     *            index of an available shell coordinate
+     * @return index of the previous available shell coordinate
+     */
+    public int prevIndex(int pos) {
+        return shellCoordPrev[pos];
+    }
+
+    public Polygon toGeometry() {
+        GeometryFactory fact = new GeometryFactory();
+        CoordinateList coordList = new CoordinateList();
+        int availIndex = firstAvailable;
+        for (int i = 0; i < size; i++) {
+            coordList.add(new Coordinate(x(availIndex), y(availIndex)), true);
+            availIndex = nextIndex(availIndex);
+        }
+        coordList.closeRing();
+        return fact.createPolygon(
+                fact.createLinearRing(coordList.toCoordinateArray()), null);
+    }
+}
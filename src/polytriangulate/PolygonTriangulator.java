@@ -2,6 +2,8 @@ package com.vividsolutions.jts.polytriangulate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryCollection;
@@ -10,14 +12,55 @@ import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.util.PolygonExtracter;
 
 public class PolygonTriangulator {
+    /**
+     * Number of tasks per worker thread the polygons are split into, so that
+     * workers which finish early can steal from the others.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
     protected Geometry original;
     private final GeometryFactory gf;
+    private boolean isZOrder = false;
+    private ForkJoinPool pool = null;
 
     public PolygonTriangulator(Geometry geo) {
         original = geo;
         gf = new GeometryFactory();
     }
 
+    /**
+     * Sets whether the polygons are triangulated by {@link EarClipperZ}
+     * instead of {@link EarClipper}. The Z-order engine is much faster on
+     * polygons with many vertices.
+     * 
+     * @param isZOrder
+     */
+    public void setZOrder(boolean isZOrder) {
+        this.isZOrder = isZOrder;
+    }
+
+    /**
+     * Sets whether the polygons are triangulated in parallel on the common
+     * ForkJoinPool. The triangles are returned in the same order as in serial
+     * mode.
+     * 
+     * @param isParallel
+     */
+    public void setParallel(boolean isParallel) {
+        setPool(isParallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * Sets the pool the polygons are triangulated on, or null to triangulate
+     * them on the calling thread. Large triangulations are also improved on
+     * it.
+     * 
+     * @param pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * Run EarClipper algorithm and return a collection of triangles for
      * MultiPolygon, different geometries will be added to one collection
@@ -26,17 +69,120 @@ public class PolygonTriangulator {
      * @return
      */
     public GeometryCollection getEarClipperResult(boolean improve) {
-        List inputPolyList = PolygonExtracter.getPolygons(original);
+        @SuppressWarnings("unchecked")
+        List<Polygon> inputPolyList = PolygonExtracter.getPolygons(original);
         int size = inputPolyList.size();
-        EarClipper clip;
+        Polygon[] polys = inputPolyList.toArray(new Polygon[size]);
+        Geometry[] results = new Geometry[size];
+        if (pool == null || size <= 1) {
+            for (int i = 0; i < size; i++) {
+                results[i] = triangulate(polys[i], improve);
+            }
+        } else {
+            TriangulateTask task = new TriangulateTask(polys, results,
+                    improve, pool.getParallelism());
+            pool.invoke(task);
+        }
         ArrayList<Polygon> outputPolylist = new ArrayList<Polygon>();
         for (int i = 0; i < size; i++) {
-            clip = new EarClipper((Polygon) inputPolyList.get(i));
-            clip.setImprove(improve);
-            Geometry triangles = clip.getResult();
-            outputPolylist.addAll(PolygonExtracter.getPolygons(triangles));
+            @SuppressWarnings("unchecked")
+            List<Polygon> triangles = PolygonExtracter.getPolygons(results[i]);
+            outputPolylist.addAll(triangles);
         }
         return gf.createGeometryCollection(GeometryFactory
                 .toGeometryArray(outputPolylist));
     }
+
+    private Geometry triangulate(Polygon poly, boolean improve) {
+        EarClipper clip = new EarClipper(poly);
+        clip.setImprove(improve);
+        clip.setImprovePool(pool);
+        if (!isZOrder) {
+            return clip.getResult();
+        }
+        // EarClipper cuts fans directly, which is faster than either engine
+        GeometryTriangleSink sink = new GeometryTriangleSink(gf);
+        if (clip.triangulateFan(sink)) {
+            return sink.getResult();
+        }
+        EarClipperZ clipZ = new EarClipperZ(poly);
+        clipZ.setImprove(improve);
+        clipZ.setImprovePool(pool);
+        return clipZ.getResult();
+    }
+
+    /**
+     * Triangulates a range of polygons, writing each result to the slot of
+     * its polygon. Ranges are split by the number of vertices rather than the
+     * number of polygons, so a single large polygon gets a task of its own
+     * instead of sitting behind many small ones.
+     */
+    private class TriangulateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Polygon[] polys;
+        private final Geometry[] results;
+        private final boolean improve;
+        // weight of polygons [0, i) is weightSum[i]
+        private final long[] weightSum;
+        private final long maxTaskWeight;
+        private final int from;
+        private final int to;
+
+        TriangulateTask(Polygon[] polys, Geometry[] results, boolean improve,
+                int parallelism) {
+            this.polys = polys;
+            this.results = results;
+            this.improve = improve;
+            weightSum = new long[polys.length + 1];
+            for (int i = 0; i < polys.length; i++) {
+                weightSum[i + 1] = weightSum[i] + polys[i].getNumPoints();
+            }
+            maxTaskWeight = Math.max(1, weightSum[polys.length]
+                    / (TASKS_PER_THREAD * parallelism));
+            from = 0;
+            to = polys.length;
+        }
+
+        private TriangulateTask(TriangulateTask parent, int from, int to) {
+            polys = parent.polys;
+            results = parent.results;
+            improve = parent.improve;
+            weightSum = parent.weightSum;
+            maxTaskWeight = parent.maxTaskWeight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || weightSum[to] - weightSum[from] <= maxTaskWeight) {
+                for (int i = from; i < to; i++) {
+                    results[i] = triangulate(polys[i], improve);
+                }
+                return;
+            }
+            int mid = splitIndex();
+            invokeAll(new TriangulateTask(this, from, mid),
+                    new TriangulateTask(this, mid, to));
+        }
+
+        /**
+         * Finds the index which divides the range into halves of about equal
+         * weight, keeping at least one polygon on each side.
+         */
+        private int splitIndex() {
+            long half = (weightSum[from] + weightSum[to]) / 2;
+            int lo = from + 1;
+            int hi = to - 1;
+            while (lo < hi) {
+                int m = (lo + hi) >>> 1;
+                if (weightSum[m] < half) {
+                    lo = m + 1;
+                } else {
+                    hi = m;
+                }
+            }
+            return lo;
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.Arrays;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * A uniform grid over the shell vertices which can possibly invalidate an
+ * ear, i.e. vertices which are reflex, collinear or shared by several
+ * positions in the shell. Vertices are identified by their shell index. Each
+ * grid cell holds an intrusive doubly linked list of vertex indices, so that
+ * insertion and removal are O(1) and no objects are created after
+ * construction.
+ */
+class ReflexVertexIndex {
+    /**
+     * Target average number of indexed vertices per cell
+     */
+    private static final double VERTICES_PER_CELL = 2.0;
+    private static final int MAX_CELLS_PER_SIDE = 2048;
+    private static final int NONE = -1;
+
+    private double minX;
+    private double minY;
+    private double cellSizeXInv;
+    private double cellSizeYInv;
+    private int numCellsX;
+    private int numCellsY;
+    // first vertex in each cell
+    private int[] cellHead = new int[0];
+    // per vertex links within its cell
+    private int[] nextInCell = new int[0];
+    private int[] prevInCell = new int[0];
+    // the cell a vertex is stored in, NONE if it is not indexed
+    private int[] vertexCell = new int[0];
+    private int size;
+
+    /**
+     * Creates an empty index.
+     * @param env
+     *            envelope of all vertices which will be indexed
+     * @param numVertices
+     *            the number of vertices in the shell
+     */
+    public ReflexVertexIndex(Envelope env, int numVertices) {
+        init(env, numVertices);
+    }
+
+    /**
+     * Empties the index and sets it up for a new shell. The arrays are only
+     * reallocated if they are too small.
+     * @param env
+     *            envelope of all vertices which will be indexed
+     * @param numVertices
+     *            the number of vertices in the shell
+     */
+    public void init(Envelope env, int numVertices) {
+        minX = env.getMinX();
+        minY = env.getMinY();
+        double width = env.getWidth();
+        double height = env.getHeight();
+        double numCells = Math.max(1.0, numVertices / VERTICES_PER_CELL);
+        int nx = 1;
+        int ny = 1;
+        if (width > 0 && height > 0) {
+            nx = (int) Math.ceil(Math.sqrt(numCells * width / height));
+            ny = (int) Math.ceil(numCells / nx);
+        } else if (width > 0) {
+            nx = (int) Math.ceil(numCells);
+        } else if (height > 0) {
+            ny = (int) Math.ceil(numCells);
+        }
+        numCellsX = clamp(nx, 1, MAX_CELLS_PER_SIDE);
+        numCellsY = clamp(ny, 1, MAX_CELLS_PER_SIDE);
+        cellSizeXInv = width > 0 ? numCellsX / width : 0.0;
+        cellSizeYInv = height > 0 ? numCellsY / height : 0.0;
+        int totalCells = numCellsX * numCellsY;
+        if (cellHead.length < totalCells) {
+            cellHead = new int[totalCells];
+        }
+        Arrays.fill(cellHead, 0, totalCells, NONE);
+        if (vertexCell.length < numVertices) {
+            nextInCell = new int[numVertices];
+            prevInCell = new int[numVertices];
+            vertexCell = new int[numVertices];
+        }
+        Arrays.fill(vertexCell, 0, numVertices, NONE);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int v) {
+        return vertexCell[v] != NONE;
+    }
+
+    /**
+     * Adds a vertex to the index. Does nothing if it is already indexed.
+     * @param v
+     *            shell index of the vertex
+     * @param x
+     * @param y
+     */
+    public void insert(int v, double x, double y) {
+        if (vertexCell[v] != NONE) {
+            return;
+        }
+        int cell = cellY(y) * numCellsX + cellX(x);
+        int head = cellHead[cell];
+        nextInCell[v] = head;
+        prevInCell[v] = NONE;
+        if (head != NONE) {
+            prevInCell[head] = v;
+        }
+        cellHead[cell] = v;
+        vertexCell[v] = cell;
+        size++;
+    }
+
+    /**
+     * Removes a vertex from the index. Does nothing if it is not indexed.
+     * @param v
+     *            shell index of the vertex
+     */
+    public void remove(int v) {
+        int cell = vertexCell[v];
+        if (cell == NONE) {
+            return;
+        }
+        int next = nextInCell[v];
+        int prev = prevInCell[v];
+        if (prev != NONE) {
+            nextInCell[prev] = next;
+        } else {
+            cellHead[cell] = next;
+        }
+        if (next != NONE) {
+            prevInCell[next] = prev;
+        }
+        vertexCell[v] = NONE;
+        size--;
+    }
+
+    /**
+     * Gets the column of the cell containing the given x ordinate. Values
+     * outside the index envelope are clamped to the border cells.
+     */
+    public int cellX(double x) {
+        return clamp((int) ((x - minX) * cellSizeXInv), 0, numCellsX - 1);
+    }
+
+    /**
+     * Gets the row of the cell containing the given y ordinate. Values
+     * outside the index envelope are clamped to the border cells.
+     */
+    public int cellY(double y) {
+        return clamp((int) ((y - minY) * cellSizeYInv), 0, numCellsY - 1);
+    }
+
+    /**
+     * Gets the first vertex stored in a cell.
+     * @return the vertex index, or -1 if the cell is empty
+     */
+    public int first(int cellX, int cellY) {
+        return cellHead[cellY * numCellsX + cellX];
+    }
+
+    /**
+     * Gets the vertex following v in the same cell.
+     * @return the vertex index, or -1 if v is the last one
+     */
+    public int next(int v) {
+        return nextInCell[v];
+    }
+
+    private static int clamp(int val, int min, int max) {
+        if (val < min) {
+            return min;
+        }
+        if (val > max) {
+            return max;
+        }
+        return val;
+    }
+}
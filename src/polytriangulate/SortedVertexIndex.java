@@ -0,0 +1,200 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * The distinct vertices of a polygon held in sorted primitive arrays, in the
+ * order of {@link Coordinate#compareTo(Object)}, i.e. by x and then by y.
+ * Each vertex is identified by its position in this order, its slot. A
+ * vertex can be marked as joined, and the navigation methods only return
+ * joined vertices, so that this can stand in for a sorted set which grows
+ * as rings are joined.
+ */
+class SortedVertexIndex {
+    private final double[] xs;
+    private final double[] ys;
+    // the first of the equal input coordinates at each slot
+    private final Coordinate[] coords;
+    private final boolean[] isJoined;
+    private final int size;
+
+    /**
+     * @param rings
+     *            the coordinates of the rings; duplicates are stored once
+     */
+    public SortedVertexIndex(List<Coordinate[]> rings) {
+        int n = 0;
+        for (int i = 0; i < rings.size(); i++) {
+            n += rings.get(i).length;
+        }
+        double[] xy = new double[2 * n];
+        Coordinate[] input = new Coordinate[n];
+        int k = 0;
+        for (int i = 0; i < rings.size(); i++) {
+            Coordinate[] pts = rings.get(i);
+            for (int j = 0; j < pts.length; j++) {
+                input[k] = pts[j];
+                xy[2 * k] = pts[j].x;
+                xy[2 * k + 1] = pts[j].y;
+                k++;
+            }
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[n], 0, n, xy);
+        xs = new double[n];
+        ys = new double[n];
+        Coordinate[] distinct = new Coordinate[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int v = order[i];
+            double x = xy[2 * v];
+            double y = xy[2 * v + 1];
+            if (m > 0 && xs[m - 1] == x && ys[m - 1] == y) {
+                continue;
+            }
+            xs[m] = x;
+            ys[m] = y;
+            distinct[m] = input[v];
+            m++;
+        }
+        size = m;
+        coords = distinct;
+        isJoined = new boolean[m];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int slot) {
+        return xs[slot];
+    }
+
+    /**
+     * Gets the vertex at a slot. This is one of the input coordinates, so it
+     * must not be modified.
+     */
+    public Coordinate getCoordinate(int slot) {
+        return coords[slot];
+    }
+
+    /**
+     * Gets the slot of a vertex.
+     * @param c
+     * @return the slot, or -1 if c is not a vertex
+     */
+    public int getSlot(Coordinate c) {
+        int i = upperBound(c.x, c.y) - 1;
+        if (i >= 0 && xs[i] == c.x && ys[i] == c.y) {
+            return i;
+        }
+        return -1;
+    }
+
+    public void setJoined(Coordinate c) {
+        int slot = getSlot(c);
+        if (slot >= 0) {
+            isJoined[slot] = true;
+        }
+    }
+
+    public boolean isJoined(Coordinate c) {
+        int slot = getSlot(c);
+        return slot >= 0 && isJoined[slot];
+    }
+
+    /**
+     * Gets the greatest joined vertex with x not greater than a value.
+     * @param x
+     * @return the slot, or -1 if there is none
+     */
+    public int floorX(double x) {
+        return lower(upperBound(x, Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Gets the greatest joined vertex before a slot.
+     * @param slot
+     * @return the slot, or -1 if there is none
+     */
+    public int lower(int slot) {
+        for (int i = slot - 1; i >= 0; i--) {
+            if (isJoined[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the least joined vertex.
+     * @return the slot, or -1 if there is none
+     */
+    public int first() {
+        for (int i = 0; i < size; i++) {
+            if (isJoined[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the first slot whose vertex is greater than (x, y).
+     */
+    private int upperBound(double x, double y) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] < x || (xs[mid] == x && ys[mid] <= y)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean isLess(int a, int b, double[] xy) {
+        return xy[2 * a] < xy[2 * b]
+                || (xy[2 * a] == xy[2 * b] && xy[2 * a + 1] < xy[2 * b + 1]);
+    }
+
+    /**
+     * Merge sorts vertex numbers from start to end by their coordinates,
+     * without allocating. Vertices which are equal keep their order.
+     * @param order
+     *            the vertex numbers to sort
+     * @param tmp
+     *            scratch space at least as long as end
+     * @param xy
+     *            the ordinates, vertex v at xy[2v], xy[2v+1]
+     */
+    static void sort(int[] order, int[] tmp, int start, int end, double[] xy) {
+        if (end - start < 2) {
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        sort(order, tmp, start, mid, xy);
+        sort(order, tmp, mid, end, xy);
+        if (!isLess(order[mid], order[mid - 1], xy)) {
+            return;
+        }
+        System.arraycopy(order, start, tmp, start, end - start);
+        int i = start;
+        int j = mid;
+        for (int k = start; k < end; k++) {
+            if (j >= end || (i < mid && !isLess(tmp[j], tmp[i], xy))) {
+                order[k] = tmp[i++];
+            } else {
+                order[k] = tmp[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * A closed ring held as a doubly linked list of nodes, into which chains of
+ * coordinates can be spliced in time proportional to the chain length. The
+ * nodes of each vertex are kept in ring order in a list per
+ * {@link SortedVertexIndex} slot, so the i'th occurrence of a vertex is
+ * found without scanning the ring. The ring is
+ * written back to a list once all splices are done.
+ * <p>
+ * The closing coordinate is a node of its own at the end of the list, as in
+ * the coordinate list the ring is created from.
+ */
+class SplicedRing {
+    private static final int NONE = -1;
+
+    private final ArrayList<Coordinate> nodeCoord;
+    private int[] nextNode;
+    private int[] prevNode;
+    private int head;
+    private final int closing;
+    private final SortedVertexIndex vertices;
+    private int[] nodeSlot;
+    // the nodes of each vertex slot in ring order, as lists linked through
+    // occNext
+    private final int[] occHead;
+    private int[] occNext;
+
+    /**
+     * @param ring
+     *            closed coordinate list
+     * @param vertices
+     *            an index holding every coordinate which will be in the ring
+     */
+    public SplicedRing(List<Coordinate> ring, SortedVertexIndex vertices) {
+        this.vertices = vertices;
+        int n = ring.size();
+        nodeCoord = new ArrayList<Coordinate>(2 * n);
+        nextNode = new int[2 * n];
+        prevNode = new int[2 * n];
+        nodeSlot = new int[2 * n];
+        occNext = new int[2 * n];
+        occHead = new int[vertices.size()];
+        Arrays.fill(occHead, NONE);
+        for (int i = 0; i < n; i++) {
+            nodeCoord.add(ring.get(i));
+            nextNode[i] = i + 1 < n ? i + 1 : NONE;
+            prevNode[i] = i - 1;
+            nodeSlot[i] = vertices.getSlot(ring.get(i));
+        }
+        // pushed from the end, so that the lists are in ring order
+        for (int i = n - 1; i >= 0; i--) {
+            occNext[i] = occHead[nodeSlot[i]];
+            occHead[nodeSlot[i]] = i;
+        }
+        head = 0;
+        closing = n - 1;
+    }
+
+    public Coordinate getCoordinate(int node) {
+        return nodeCoord.get(node);
+    }
+
+    /**
+     * Gets the first node in ring order holding a vertex.
+     * @param slot
+     *            the slot of the vertex
+     * @return the node, or -1 if there is none
+     */
+    public int firstOccurrence(int slot) {
+        return occHead[slot];
+    }
+
+    /**
+     * Gets the next node in ring order holding the same vertex as a node.
+     * @param node
+     * @return the node, or -1 if there is none
+     */
+    public int nextOccurrence(int node) {
+        return occNext[node];
+    }
+
+    public boolean isClosing(int node) {
+        return node == closing;
+    }
+
+    /**
+     * Gets the node before a node, going round from the first node to the
+     * last one before the closing node.
+     */
+    public int prev(int node) {
+        if (node == head) {
+            return prevNode[closing];
+        }
+        return prevNode[node];
+    }
+
+    /**
+     * Gets the node after a node which is not the closing node.
+     */
+    public int next(int node) {
+        return nextNode[node];
+    }
+
+    /**
+     * Inserts coordinates in front of a node.
+     * @param node
+     * @param chain
+     *            the coordinates to insert, in ring order
+     */
+    public void insertBefore(int node, List<Coordinate> chain) {
+        int firstNew = nodeCoord.size();
+        int size = firstNew + chain.size();
+        if (size > nextNode.length) {
+            nextNode = Arrays.copyOf(nextNode, 2 * size);
+            prevNode = Arrays.copyOf(prevNode, 2 * size);
+            nodeSlot = Arrays.copyOf(nodeSlot, 2 * size);
+            occNext = Arrays.copyOf(occNext, 2 * size);
+        }
+        int prev = prevNode[node];
+        for (int i = 0; i < chain.size(); i++) {
+            int n = firstNew + i;
+            nodeCoord.add(chain.get(i));
+            nodeSlot[n] = vertices.getSlot(chain.get(i));
+            prevNode[n] = prev;
+            if (prev == NONE) {
+                head = n;
+            } else {
+                nextNode[prev] = n;
+            }
+            prev = n;
+        }
+        nextNode[prev] = node;
+        prevNode[node] = prev;
+        int[] unordered = null;
+        int numUnordered = 0;
+        for (int n = firstNew; n < size; n++) {
+            int slot = nodeSlot[n];
+            int first = occHead[slot];
+            if (first == NONE || first >= firstNew) {
+                // new vertex, or one only seen earlier in this chain
+                appendOccurrence(slot, n);
+            } else if (n == firstNew && slot == nodeSlot[node]) {
+                insertOccurrenceBefore(slot, n, node);
+            } else {
+                // a vertex which was already in the ring elsewhere
+                if (unordered == null) {
+                    unordered = new int[size - n];
+                }
+                unordered[numUnordered++] = slot;
+                appendOccurrence(slot, n);
+            }
+        }
+        for (int i = 0; i < numUnordered; i++) {
+            sortOccurrences(unordered[i]);
+        }
+    }
+
+    /**
+     * Writes the ring to a list, replacing its contents.
+     * @param ring
+     */
+    public void copyTo(List<Coordinate> ring) {
+        ring.clear();
+        for (int n = head; n != NONE; n = nextNode[n]) {
+            ring.add(nodeCoord.get(n));
+        }
+    }
+
+    private void appendOccurrence(int slot, int node) {
+        occNext[node] = NONE;
+        int last = occHead[slot];
+        if (last == NONE) {
+            occHead[slot] = node;
+            return;
+        }
+        while (occNext[last] != NONE) {
+            last = occNext[last];
+        }
+        occNext[last] = node;
+    }
+
+    private void insertOccurrenceBefore(int slot, int node, int before) {
+        occNext[node] = before;
+        if (occHead[slot] == before) {
+            occHead[slot] = node;
+            return;
+        }
+        int prev = occHead[slot];
+        while (occNext[prev] != before) {
+            prev = occNext[prev];
+        }
+        occNext[prev] = node;
+    }
+
+    /**
+     * Puts the occurrences of a vertex back into ring order by walking the
+     * ring. Only needed when rings touch at a vertex.
+     */
+    private void sortOccurrences(int slot) {
+        occHead[slot] = NONE;
+        int last = NONE;
+        for (int n = head; n != NONE; n = nextNode[n]) {
+            if (nodeSlot[n] != slot) {
+                continue;
+            }
+            if (last == NONE) {
+                occHead[slot] = n;
+            } else {
+                occNext[last] = n;
+            }
+            occNext[n] = NONE;
+            last = n;
+        }
+    }
+}
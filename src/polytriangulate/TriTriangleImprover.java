@@ -1,68 +1,266 @@
 package com.vividsolutions.jts.polytriangulate;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
-import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.polytriangulate.tri.TriN;
-import com.vividsolutions.jts.triangulate.quadedge.TrianglePredicate;
+import com.vividsolutions.jts.polytriangulate.tri.TriPredicate;
+import com.vividsolutions.jts.polytriangulate.tri.TriStore;
 
 public class TriTriangleImprover {
-    private static int MAX_IMPROVE_SCAN = 20;
+    /**
+     * Meshes with fewer triangles are improved on the calling thread even if
+     * a pool is set.
+     */
+    private static final int MIN_PARALLEL_SIZE = 10000;
+    // number of edges a parallel task is split down to
+    private static final int EDGES_PER_TASK = 1024;
+
+    // edges to be tested
+    private final IntStack edgeStack = new IntStack(16);
+    private ForkJoinPool pool = null;
 
     public TriTriangleImprover() {
     }
 
-    public void improve(List<TriN> triList) {
-        for (int i = 0; i < MAX_IMPROVE_SCAN; i++) {
-            int improveCount = doImprovementScan(triList);
-            System.out.println("improve #" + i + " - count = " + improveCount);
-            if (improveCount == 0) {
-                return;
+    /**
+     * Sets the pool on which large meshes are improved in parallel, or null
+     * to improve them on the calling thread.
+     * @param pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Flips edges until the triangulation is Delaunay. Every edge is tested
+     * as the triangles are scanned. A flip can only make the four edges
+     * around the flipped quadrilateral non-Delaunay, so these are pushed on a
+     * stack and tested before the scan goes on. Beyond the scan, the work is
+     * proportional to the number of flips.
+     * @return the number of flips that were made
+     */
+    public int improve(TriStore store) {
+        if (pool != null && store.size() >= MIN_PARALLEL_SIZE) {
+            return improveParallel(store);
+        }
+        int flipCount = 0;
+        int numEdges = 3 * store.size();
+        for (int edge = 0; edge < numEdges; edge++) {
+            // test each edge from its side with the lower id
+            if (store.getOpposite(edge) > edge && flip(store, edge)) {
+                flipCount++;
+                pushSurrounding(store, edge);
+                flipCount += flipStacked(store);
             }
         }
+        return flipCount;
     }
 
     /**
-     * Attempts to improve the triangulation by examining pairs of triangles
-     * with a common edge, forming a quadrilateral, and testing if swapping the
-     * diagonal of this quadrilateral would produce two new triangles with
-     * larger minimum interior angles.
-     * @return the number of improvement flips that were made
+     * Flips edges in rounds until the triangulation is Delaunay. In each
+     * round the pending edges are tested in parallel, then a set of flips
+     * which share no triangle and no neighbour of one is chosen, and these
+     * are made in parallel. A flip only reads and changes its two triangles
+     * and their neighbours, so flips of the set cannot interfere. Edges left
+     * out of the set, and the edges around each flip, are tested again in
+     * the next round.
+     * @return the number of flips that were made
      */
-    private int doImprovementScan(List<TriN> triList) {
-        int improveCount = 0;
-        for (int i = 0; i < triList.size() - 1; i++) {
-            TriN ear0 = triList.get(i);
-            for (int j = 0; j < 3; j++) {
-                TriN ear1 = ear0.neighbor(j);
-                if (improve(ear0, ear1)) {
-                    improveCount++;
+    private int improveParallel(TriStore store) {
+        IntStack edges = new IntStack(3 * store.size());
+        for (int edge = 0; edge < 3 * store.size(); edge++) {
+            if (store.getOpposite(edge) > edge) {
+                edges.push(edge);
+            }
+        }
+        // the last round each triangle was claimed in
+        int[] marks = new int[store.size()];
+        IntStack flips = new IntStack(edges.size());
+        int flipCount = 0;
+        int round = 0;
+        while (edges.size() > 0) {
+            round++;
+            boolean[] isFlipNeeded = new boolean[edges.size()];
+            pool.invoke(new EdgeTask(store, edges, isFlipNeeded, false, 0,
+                    isFlipNeeded.length));
+            IntStack pending = new IntStack(edges.size());
+            flips.clear();
+            for (int e = 0; e < isFlipNeeded.length; e++) {
+                if (isFlipNeeded[e]) {
+                    int edge = edges.get(e);
+                    if (claim(store, marks, edge, round)) {
+                        flips.push(edge);
+                    } else {
+                        pending.push(edge);
+                    }
                 }
             }
+            pool.invoke(new EdgeTask(store, flips, null, true, 0, flips.size()));
+            flipCount += flips.size();
+            for (int e = 0; e < flips.size(); e++) {
+                pushSurrounding(store, pending, flips.get(e));
+            }
+            edges = pending;
         }
-        return improveCount;
+        return flipCount;
     }
 
-    private boolean improve(TriN t0, TriN t1) {
-        if (t0 == null || t1 == null) {
+    /**
+     * Marks the triangles a flip of the edge reads or changes with the
+     * round, unless one of them is already marked.
+     * @return true if the flip can be made in this round
+     */
+    private static boolean claim(TriStore store, int[] marks, int edge,
+            int round) {
+        int tri0 = edge / 3;
+        int tri1 = store.getOpposite(edge) / 3;
+        if (marks[tri0] == round || marks[tri1] == round) {
             return false;
         }
-        return flip(t0, t1);
+        for (int i = 0; i < 3; i++) {
+            int n0 = store.getNeighbour(tri0, i);
+            int n1 = store.getNeighbour(tri1, i);
+            if ((n0 >= 0 && marks[n0] == round)
+                    || (n1 >= 0 && marks[n1] == round)) {
+                return false;
+            }
+        }
+        marks[tri0] = round;
+        marks[tri1] = round;
+        for (int i = 0; i < 3; i++) {
+            int n0 = store.getNeighbour(tri0, i);
+            int n1 = store.getNeighbour(tri1, i);
+            if (n0 >= 0) {
+                marks[n0] = round;
+            }
+            if (n1 >= 0) {
+                marks[n1] = round;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests or flips a range of the edges.
+     */
+    private class EdgeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final TriStore store;
+        private final IntStack edges;
+        // set for each edge tested
+        private final boolean[] isFlipNeeded;
+        private final boolean isFlip;
+        private final int from;
+        private final int to;
+
+        EdgeTask(TriStore store, IntStack edges, boolean[] isFlipNeeded,
+                boolean isFlip, int from, int to) {
+            this.store = store;
+            this.edges = edges;
+            this.isFlipNeeded = isFlipNeeded;
+            this.isFlip = isFlip;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > EDGES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EdgeTask(store, edges, isFlipNeeded, isFlip,
+                        from, mid), new EdgeTask(store, edges, isFlipNeeded,
+                        isFlip, mid, to));
+                return;
+            }
+            for (int e = from; e < to; e++) {
+                if (isFlip) {
+                    store.flip(edges.get(e));
+                } else {
+                    isFlipNeeded[e] = flip(store, edges.get(e), false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the edges on the stack, pushing the surrounding edges of each
+     * flip, until it is empty.
+     * @return the number of flips that were made
+     */
+    private int flipStacked(TriStore store) {
+        int flipCount = 0;
+        while (edgeStack.size() > 0) {
+            int edge = edgeStack.pop();
+            if (flip(store, edge)) {
+                flipCount++;
+                pushSurrounding(store, edge);
+            }
+        }
+        return flipCount;
+    }
+
+    private void pushSurrounding(TriStore store, int edge) {
+        pushSurrounding(store, edgeStack, edge);
+    }
+
+    /**
+     * Pushes the outer edges of the quadrilateral formed by the two
+     * triangles of an edge which has just been flipped. The flipped edge is
+     * edge 2 of both, so the outer edges are 0 and 1.
+     */
+    private static void pushSurrounding(TriStore store, IntStack edges,
+            int edge) {
+        int t = edge - edge % 3;
+        int u = store.getOpposite(t + 2) - 2;
+        pushEdge(store, edges, t);
+        pushEdge(store, edges, t + 1);
+        pushEdge(store, edges, u);
+        pushEdge(store, edges, u + 1);
+    }
+
+    private static void pushEdge(TriStore store, IntStack edges, int edge) {
+        if (store.getOpposite(edge) >= 0) {
+            edges.push(edge);
+        }
+    }
+
+    /**
+     * Attempts to improve the triangulation by swapping the diagonal of the
+     * quadrilateral formed by the two triangles of an edge, if the two
+     * triangles are not Delaunay.
+     * @return true if the diagonal was swapped
+     */
+    private boolean flip(TriStore store, int edge) {
+        return flip(store, edge, true);
     }
 
-    private boolean flip(TriN tri0, TriN tri1) {
-        Coordinate[] adjacentVertices = tri0.getSharedCoordinates(tri1);
-        Coordinate adj0 = adjacentVertices[0];
-        Coordinate adj1 = adjacentVertices[1];
-        Coordinate opp0 = oppositeCoord(tri0, adjacentVertices);
-        Coordinate opp1 = oppositeCoord(tri1, adjacentVertices);
+    /**
+     * @param isFlip
+     *            false to only test whether the diagonal should be swapped,
+     *            without changing the triangles
+     * @return true if the diagonal was or should be swapped
+     */
+    private boolean flip(TriStore store, int edge, boolean isFlip) {
+        int oppEdge = store.getOpposite(edge);
+        if (oppEdge < 0) {
+            return false;
+        }
+        int t = edge - edge % 3;
+        int u = oppEdge - oppEdge % 3;
+        int adj0 = store.getEdgeVertex(edge);
+        int adj1 = store.getEdgeVertex(t + TriStore.next(edge - t));
+        int opp0 = store.getEdgeVertex(t
+                + TriStore.next(TriStore.next(edge - t)));
+        int opp1 = store.getEdgeVertex(u
+                + TriStore.next(TriStore.next(oppEdge - u)));
         /*
          * The candidate new edge is from opp0 to opp1. First check if this is
          * inside the quadrilateral, which is the case iff the quadrilateral is
          * convex
          */
-        if (!isQuadConvex(opp0, adj0, adj1, opp1)) {
+        if (!isQuadConvex(store, opp0, adj0, adj1, opp1)) {
             return false;
         }
         /**
@@ -71,62 +269,89 @@ public class TriTriangleImprover {
          * two triangles are not Delaunay (i.e. one of the opposite vertices is
          * in the circumcircle of the other triangle).
          */
-        boolean doFlip = false;
-        if (!isDelaunay(opp0, adj0, adj1, opp1)) {
-            doFlip = true;
+        if (isDelaunay(store, opp0, adj0, adj1, opp1)) {
+            return false;
         }
-        if (doFlip) {
-            tri0.flip(tri1, adj0, adj1, opp0, opp1);
-            return true;
+        if (isFlip) {
+            store.flip(edge);
         }
-        return false;
+        return true;
     }
 
     /**
      * Checks if the quadrilateral formed by the two triangles is convex.
-     * @param opp0
-     * @param adj0
-     * @param adj1
-     * @param opp1
-     * @return
      */
-    private boolean isQuadConvex(Coordinate opp0, Coordinate adj0,
-            Coordinate adj1, Coordinate opp1) {
-        int dir0 = CGAlgorithms.orientationIndex(opp0, opp1, adj0);
-        int dir1 = CGAlgorithms.orientationIndex(opp0, opp1, adj1);
-        boolean isQuadConvex = dir0 == -dir1;
-        if (!isQuadConvex) {
-            return false;
-        }
-        return true;
+    private boolean isQuadConvex(TriStore store, int opp0, int adj0,
+            int adj1, int opp1) {
+        int dir0 = orientationIndex(store, opp0, opp1, adj0);
+        int dir1 = orientationIndex(store, opp0, opp1, adj1);
+        return dir0 == -dir1;
     }
 
-    private Coordinate oppositeCoord(TriN tri, Coordinate[] sharedVertices) {
-        for (int i = 0; i < 3; i++) {
-            Coordinate curr = tri.getCoordinate(i);
-            if (!curr.equals(sharedVertices[0])
-                    && !curr.equals(sharedVertices[1])) {
-                return curr;
-            }
+    private boolean isDelaunay(TriStore store, int c0, int adj0,
+            int adj1, int c1) {
+        return !(isInCircle(store, c0, adj0, adj1, c1) || isInCircle(store,
+                c1, adj1, adj0, c0));
+    }
+
+    private boolean isInCircle(TriStore store, int a, int b, int c,
+            int p) {
+        if (orientationIndex(store, a, b, c) == CGAlgorithms.COUNTERCLOCKWISE) {
+            return inCircle(store, a, b, c, p) > 0;
         }
-        return null;
+        return inCircle(store, a, c, b, p) > 0;
     }
 
-    private boolean isDelaunay(Coordinate c0, Coordinate adj0, Coordinate adj1,
-            Coordinate c1) {
-        return !(isInCircle(c0, adj0, adj1, c1) || isInCircle(c1, adj1, adj0,
-                c0));
+    /**
+     * Gets the orientation of vertex c relative to the line from a to b.
+     * This is exact for any double ordinates, but a subclass can use a
+     * faster exact test where the ordinates allow one, such as integer
+     * arithmetic. It is called from the pool's threads when improving in
+     * parallel.
+     */
+    protected int orientationIndex(TriStore store, int a, int b, int c) {
+        return TriPredicate.orientationIndex(store.getX(a), store.getY(a),
+                store.getX(b), store.getY(b), store.getX(c), store.getY(c));
     }
 
-    private boolean isInCircle(Coordinate a, Coordinate b, Coordinate c,
-            Coordinate p) {
-        if (isCCW(a, b, c)) {
-            return TrianglePredicate.isInCircleRobust(a, b, c, p);
-        }
-        return TrianglePredicate.isInCircleRobust(a, c, b, p);
+    private static int inCircle(TriStore store, int a, int b, int c, int p) {
+        return TriPredicate.inCircle(store.getX(a), store.getY(a),
+                store.getX(b), store.getY(b), store.getX(c), store.getY(c),
+                store.getX(p), store.getY(p));
     }
 
-    public final boolean isCCW(Coordinate a, Coordinate b, Coordinate c) {
-        return CGAlgorithms.computeOrientation(a, b, c) == CGAlgorithms.COUNTERCLOCKWISE;
+    /**
+     * A growable stack of edge ids.
+     */
+    private static class IntStack {
+        private int[] items;
+        private int size = 0;
+
+        IntStack(int capacity) {
+            items = new int[Math.max(capacity, 16)];
+        }
+
+        void push(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size++] = item;
+        }
+
+        int pop() {
+            return items[--size];
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
     }
-}
\ No newline at end of file
+}
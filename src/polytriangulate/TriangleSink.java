@@ -0,0 +1,18 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * Receives the triangles of a triangulation one at a time, so that they can
+ * be streamed to their destination without building the whole result.
+ */
+public interface TriangleSink {
+    /**
+     * Called once for each triangle. The coordinates are shared with the
+     * triangulation and must not be modified.
+     * @param p0
+     * @param p1
+     * @param p2
+     */
+    void addTriangle(Coordinate p0, Coordinate p1, Coordinate p2);
+}
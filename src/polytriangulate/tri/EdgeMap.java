@@ -0,0 +1,123 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import java.util.Arrays;
+
+/**
+ * The edges of a {@link Triangulation} which wait for their second triangle,
+ * in an open-addressing hash table of primitive keys and values. The key of
+ * an edge packs its two vertex ids into a long, the value is its edge id. An
+ * edge leaves the table as soon as it is matched, so the table only holds
+ * the boundary of the triangles added so far.
+ */
+class EdgeMap {
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+    // keys.length - 1, a power of two less one
+    private int mask;
+
+    EdgeMap() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the key of the edge between vertices a and b, in either
+     * direction.
+     */
+    static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Removes the edge with the key if it is in the table, otherwise adds
+     * it, in a single probe.
+     * @param key
+     *            the key of the edge, from {@link #key}
+     * @param edge
+     *            the edge id to add
+     * @return the edge id removed, or -1 if the edge was added
+     */
+    int match(long key, int edge) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                int matched = values[i];
+                remove(i);
+                return matched;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = edge;
+        size++;
+        if (2 * size > keys.length) {
+            grow();
+        }
+        return -1;
+    }
+
+    /**
+     * Empties slot i, moving back the entries after it which would no longer
+     * be reached by their probe.
+     */
+    private void remove(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) {
+                break;
+            }
+            int home = slot(keys[j]);
+            // move the entry unless its home lies cyclically in (i, j]
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        init(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
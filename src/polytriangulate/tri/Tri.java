@@ -66,7 +66,7 @@ public class Tri
     Coordinate e0 = getCoordinate(iedge);
     Coordinate e1 = getCoordinate(next(iedge));
     return CGAlgorithms.COUNTERCLOCKWISE 
-      == CGAlgorithms.orientationIndex(e0, e1, v.getCoordinate());
+      == TriPredicate.orientationIndex(e0, e1, v.getCoordinate());
   }
   
   public Coordinate getCoordinate(int i)
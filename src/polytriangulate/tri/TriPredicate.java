@@ -0,0 +1,340 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * Orientation and in-circle predicates with exact results, in the style of
+ * Shewchuk's adaptive predicates. The determinant is first evaluated in
+ * plain floating point and accepted if it is larger than a bound on its
+ * rounding error. Only near-degenerate inputs fall back to expansion
+ * arithmetic, where the value is represented exactly as a sum of
+ * non-overlapping doubles.
+ * <p>
+ * The orientation index follows the convention of
+ * {@link CGAlgorithms#orientationIndex(Coordinate, Coordinate, Coordinate)}.
+ */
+public class TriPredicate {
+    // half an ulp of 1
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+    // used to split a double into two 26 bit halves
+    private static final double SPLITTER = 134217729.0;
+    private static final double RESULT_ERRBOUND = (3 + 8 * EPSILON) * EPSILON;
+    private static final double CCW_ERRBOUND_A = (3 + 16 * EPSILON) * EPSILON;
+    private static final double CCW_ERRBOUND_B = (2 + 12 * EPSILON) * EPSILON;
+    private static final double CCW_ERRBOUND_C = (9 + 64 * EPSILON) * EPSILON
+            * EPSILON;
+    private static final double ICC_ERRBOUND_A = (10 + 96 * EPSILON)
+            * EPSILON;
+
+    private TriPredicate() {
+    }
+
+    /**
+     * Gets the orientation of q relative to the directed line p1-p2.
+     * @return 1 if q is to the left, -1 if it is to the right, 0 if it is on
+     *         the line
+     */
+    public static int orientationIndex(Coordinate p1, Coordinate p2,
+            Coordinate q) {
+        return orientationIndex(p1.x, p1.y, p2.x, p2.y, q.x, q.y);
+    }
+
+    /**
+     * Gets the orientation of c relative to the directed line a-b.
+     * @return 1 if c is to the left, -1 if it is to the right, 0 if it is on
+     *         the line
+     */
+    public static int orientationIndex(double ax, double ay, double bx,
+            double by, double cx, double cy) {
+        double detLeft = (ax - cx) * (by - cy);
+        double detRight = (ay - cy) * (bx - cx);
+        double det = detLeft - detRight;
+        double detSum;
+        if (detLeft > 0) {
+            if (detRight <= 0) {
+                return signum(det);
+            }
+            detSum = detLeft + detRight;
+        } else if (detLeft < 0) {
+            if (detRight >= 0) {
+                return signum(det);
+            }
+            detSum = -detLeft - detRight;
+        } else {
+            return signum(det);
+        }
+        double errBound = CCW_ERRBOUND_A * detSum;
+        if (det >= errBound || -det >= errBound) {
+            return signum(det);
+        }
+        return signum(orientationAdapt(ax, ay, bx, by, cx, cy, detSum));
+    }
+
+    /**
+     * Tests whether p lies strictly inside the circle through a, b and c,
+     * which must be in CCW order.
+     */
+    public static boolean isInCircle(Coordinate a, Coordinate b, Coordinate c,
+            Coordinate p) {
+        return inCircle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y) > 0;
+    }
+
+    /**
+     * Gets the position of d relative to the circle through a, b and c,
+     * which must be in CCW order.
+     * @return 1 if d is inside the circle, -1 if it is outside, 0 if it is
+     *         on it
+     */
+    public static int inCircle(double ax, double ay, double bx, double by,
+            double cx, double cy, double dx, double dy) {
+        double adx = ax - dx;
+        double bdx = bx - dx;
+        double cdx = cx - dx;
+        double ady = ay - dy;
+        double bdy = by - dy;
+        double cdy = cy - dy;
+        double bdxcdy = bdx * cdy;
+        double cdxbdy = cdx * bdy;
+        double alift = adx * adx + ady * ady;
+        double cdxady = cdx * ady;
+        double adxcdy = adx * cdy;
+        double blift = bdx * bdx + bdy * bdy;
+        double adxbdy = adx * bdy;
+        double bdxady = bdx * ady;
+        double clift = cdx * cdx + cdy * cdy;
+        double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy)
+                + clift * (adxbdy - bdxady);
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        double errBound = ICC_ERRBOUND_A * permanent;
+        if (det > errBound || -det > errBound) {
+            return signum(det);
+        }
+        return inCircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    /**
+     * The later stages of orient2d. The determinant is recomputed from the
+     * exact products of the rounded differences, then corrected with the
+     * rounding errors of the differences, and only if that is still not
+     * conclusive is it computed exactly.
+     */
+    private static double orientationAdapt(double ax, double ay, double bx,
+            double by, double cx, double cy, double detSum) {
+        double acx = ax - cx;
+        double bcx = bx - cx;
+        double acy = ay - cy;
+        double bcy = by - cy;
+        double[] b = twoTwoDiff(acx, bcy, acy, bcx);
+        double det = estimate(b);
+        double errBound = CCW_ERRBOUND_B * detSum;
+        if (det >= errBound || -det >= errBound) {
+            return det;
+        }
+        double acxTail = twoDiffTail(ax, cx, acx);
+        double bcxTail = twoDiffTail(bx, cx, bcx);
+        double acyTail = twoDiffTail(ay, cy, acy);
+        double bcyTail = twoDiffTail(by, cy, bcy);
+        if (acxTail == 0 && acyTail == 0 && bcxTail == 0 && bcyTail == 0) {
+            return det;
+        }
+        errBound = CCW_ERRBOUND_C * detSum + RESULT_ERRBOUND * Math.abs(det);
+        det += (acx * bcyTail + bcy * acxTail)
+                - (acy * bcxTail + bcx * acyTail);
+        if (det >= errBound || -det >= errBound) {
+            return det;
+        }
+        double[] d = sum(b, twoTwoDiff(acxTail, bcy, acyTail, bcx));
+        d = sum(d, twoTwoDiff(acx, bcyTail, acy, bcxTail));
+        d = sum(d, twoTwoDiff(acxTail, bcyTail, acyTail, bcxTail));
+        return d[d.length - 1];
+    }
+
+    /**
+     * Evaluates the in-circle determinant exactly. The differences from d
+     * are formed as two-term expansions, so the whole computation is exact.
+     */
+    private static int inCircleExact(double ax, double ay, double bx,
+            double by, double cx, double cy, double dx, double dy) {
+        double[] adx = diff(ax, dx);
+        double[] bdx = diff(bx, dx);
+        double[] cdx = diff(cx, dx);
+        double[] ady = diff(ay, dy);
+        double[] bdy = diff(by, dy);
+        double[] cdy = diff(cy, dy);
+        double[] bc = sum(product(bdx, cdy), negate(product(cdx, bdy)));
+        double[] ca = sum(product(cdx, ady), negate(product(adx, cdy)));
+        double[] ab = sum(product(adx, bdy), negate(product(bdx, ady)));
+        double[] alift = sum(product(adx, adx), product(ady, ady));
+        double[] blift = sum(product(bdx, bdx), product(bdy, bdy));
+        double[] clift = sum(product(cdx, cdx), product(cdy, cdy));
+        double[] det = sum(sum(product(alift, bc), product(blift, ca)),
+                product(clift, ab));
+        return signum(det[det.length - 1]);
+    }
+
+    private static int signum(double det) {
+        if (det > 0) {
+            return CGAlgorithms.COUNTERCLOCKWISE;
+        }
+        if (det < 0) {
+            return CGAlgorithms.CLOCKWISE;
+        }
+        return CGAlgorithms.COLLINEAR;
+    }
+
+    /*
+     * Expansion arithmetic. An expansion is a sum of doubles, stored from
+     * the least significant component up, none of which overlap. Zero
+     * components are dropped, so the last one gives the sign.
+     */
+
+    /**
+     * Computes a * b - c * d as an expansion of up to four components.
+     */
+    private static double[] twoTwoDiff(double a, double b, double c, double d) {
+        double ab = a * b;
+        double cd = c * d;
+        double[] e = diff(ab, -twoProductTail(a, b, ab));
+        return growExpansion(growExpansion(e, -twoProductTail(c, d, cd)), -cd);
+    }
+
+    /**
+     * Computes the expansion of a - b.
+     */
+    private static double[] diff(double a, double b) {
+        double x = a - b;
+        double tail = twoDiffTail(a, b, x);
+        if (tail == 0) {
+            return new double[] { x };
+        }
+        return new double[] { tail, x };
+    }
+
+    private static double[] negate(double[] e) {
+        double[] h = new double[e.length];
+        for (int i = 0; i < e.length; i++) {
+            h[i] = -e[i];
+        }
+        return h;
+    }
+
+    /**
+     * Adds two expansions by growing the first with each component of the
+     * second.
+     */
+    private static double[] sum(double[] e, double[] f) {
+        double[] h = e;
+        for (int i = 0; i < f.length; i++) {
+            h = growExpansion(h, f[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Adds a double to an expansion, as grow_expansion_zeroelim.
+     */
+    private static double[] growExpansion(double[] e, double b) {
+        double[] h = new double[e.length + 1];
+        int hLen = 0;
+        double q = b;
+        for (int i = 0; i < e.length; i++) {
+            double s = q + e[i];
+            double tail = twoSumTail(q, e[i], s);
+            q = s;
+            if (tail != 0) {
+                h[hLen++] = tail;
+            }
+        }
+        if (q != 0 || hLen == 0) {
+            h[hLen++] = q;
+        }
+        return trim(h, hLen);
+    }
+
+    /**
+     * Multiplies an expansion by a double, as scale_expansion_zeroelim.
+     */
+    private static double[] scale(double[] e, double b) {
+        double[] h = new double[2 * e.length];
+        int hLen = 0;
+        double q = e[0] * b;
+        double tail = twoProductTail(e[0], b, q);
+        if (tail != 0) {
+            h[hLen++] = tail;
+        }
+        for (int i = 1; i < e.length; i++) {
+            double p1 = e[i] * b;
+            double p0 = twoProductTail(e[i], b, p1);
+            double s = q + p0;
+            tail = twoSumTail(q, p0, s);
+            if (tail != 0) {
+                h[hLen++] = tail;
+            }
+            q = p1 + s;
+            tail = s - (q - p1);
+            if (tail != 0) {
+                h[hLen++] = tail;
+            }
+        }
+        if (q != 0 || hLen == 0) {
+            h[hLen++] = q;
+        }
+        return trim(h, hLen);
+    }
+
+    private static double[] product(double[] e, double[] f) {
+        double[] h = scale(e, f[0]);
+        for (int i = 1; i < f.length; i++) {
+            h = sum(h, scale(e, f[i]));
+        }
+        return h;
+    }
+
+    private static double[] trim(double[] h, int hLen) {
+        if (hLen == h.length) {
+            return h;
+        }
+        double[] copy = new double[hLen];
+        System.arraycopy(h, 0, copy, 0, hLen);
+        return copy;
+    }
+
+    private static double estimate(double[] e) {
+        double q = e[0];
+        for (int i = 1; i < e.length; i++) {
+            q += e[i];
+        }
+        return q;
+    }
+
+    private static double twoSumTail(double a, double b, double x) {
+        double bVirt = x - a;
+        double aVirt = x - bVirt;
+        return (a - aVirt) + (b - bVirt);
+    }
+
+    private static double twoDiffTail(double a, double b, double x) {
+        double bVirt = a - x;
+        double aVirt = x + bVirt;
+        return (a - aVirt) + (bVirt - b);
+    }
+
+    /**
+     * Gets the rounding error of x = a * b, by Dekker's splitting.
+     */
+    private static double twoProductTail(double a, double b, double x) {
+        double c = SPLITTER * a;
+        double aHi = c - (c - a);
+        double aLo = a - aHi;
+        c = SPLITTER * b;
+        double bHi = c - (c - b);
+        double bLo = b - bHi;
+        double err1 = x - aHi * bHi;
+        double err2 = err1 - aLo * bHi;
+        double err3 = err2 - aHi * bLo;
+        return aLo * bLo - err3;
+    }
+}
@@ -0,0 +1,225 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import java.util.Arrays;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+/**
+ * A triangle mesh held in primitive arrays indexed by triangle id, rather
+ * than as an object per triangle. A triangle takes three vertex ids and
+ * three neighbour links, 24 bytes, and a vertex its two ordinates and the
+ * coordinate it was added with.
+ * <p>
+ * Edge i of triangle t runs from vertex i to vertex i + 1 and is identified
+ * by the edge id 3t + i. The neighbour link of an edge is the id of the same
+ * edge in the adjacent triangle, so the neighbour is the link / 3 and its
+ * edge index the link % 3, or -1 on the boundary. All triangles must have
+ * the same orientation, so the adjacent triangle has the edge in the other
+ * direction.
+ * <p>
+ * The arrays grow as needed and are kept by {@link #clear()}, so a store can
+ * be reused for mesh after mesh.
+ */
+public class TriStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] xy;
+    private Coordinate[] coords;
+    private int numVertices = 0;
+    // three vertex ids per triangle
+    private int[] vertex;
+    // the opposite edge id of every edge, or -1
+    private int[] opposite;
+    private int numTris = 0;
+
+    public TriStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param numTris
+     *            the number of triangles to make room for
+     */
+    public TriStore(int numTris) {
+        int n = Math.max(numTris, 1);
+        xy = new double[2 * (n + 2)];
+        coords = new Coordinate[n + 2];
+        vertex = new int[3 * n];
+        opposite = new int[3 * n];
+    }
+
+    /**
+     * Removes all vertices and triangles, keeping the arrays.
+     */
+    public void clear() {
+        Arrays.fill(coords, 0, numVertices, null);
+        numVertices = 0;
+        numTris = 0;
+    }
+
+    /**
+     * Adds a vertex. Vertices are not merged, so a coordinate added twice
+     * gets two ids.
+     * @return the id of the vertex
+     */
+    public int addVertex(Coordinate p) {
+        int v = addVertex(p.x, p.y);
+        coords[v] = p;
+        return v;
+    }
+
+    /**
+     * Adds a vertex without a coordinate, for meshes which are only read by
+     * vertex id.
+     * @return the id of the vertex
+     */
+    public int addVertex(double x, double y) {
+        if (numVertices == coords.length) {
+            coords = Arrays.copyOf(coords, 2 * numVertices);
+            xy = Arrays.copyOf(xy, 4 * numVertices);
+        }
+        xy[2 * numVertices] = x;
+        xy[2 * numVertices + 1] = y;
+        return numVertices++;
+    }
+
+    /**
+     * Adds a triangle with no neighbours.
+     * @return the id of the triangle
+     */
+    public int addTriangle(int v0, int v1, int v2) {
+        if (3 * numTris == vertex.length) {
+            vertex = Arrays.copyOf(vertex, 2 * vertex.length);
+            opposite = Arrays.copyOf(opposite, vertex.length);
+        }
+        int e = 3 * numTris;
+        vertex[e] = v0;
+        vertex[e + 1] = v1;
+        vertex[e + 2] = v2;
+        opposite[e] = -1;
+        opposite[e + 1] = -1;
+        opposite[e + 2] = -1;
+        return numTris++;
+    }
+
+    /**
+     * Links two edges as the sides of one edge of the mesh, in both
+     * directions.
+     * @param edge
+     *            an edge id
+     * @param oppositeEdge
+     *            the edge id in the adjacent triangle, or -1 for none
+     */
+    public void link(int edge, int oppositeEdge) {
+        opposite[edge] = oppositeEdge;
+        if (oppositeEdge >= 0) {
+            opposite[oppositeEdge] = edge;
+        }
+    }
+
+    /**
+     * Gets the number of triangles.
+     */
+    public int size() {
+        return numTris;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Gets the id of vertex i of triangle t.
+     */
+    public int getVertex(int t, int i) {
+        return vertex[3 * t + i];
+    }
+
+    /**
+     * Gets the id of the vertex an edge starts at.
+     */
+    public int getEdgeVertex(int edge) {
+        return vertex[edge];
+    }
+
+    /**
+     * Gets the triangle across edge i of triangle t.
+     * @return the triangle id, or -1 if the edge is on the boundary
+     */
+    public int getNeighbour(int t, int i) {
+        int e = opposite[3 * t + i];
+        return e < 0 ? -1 : e / 3;
+    }
+
+    /**
+     * Gets the id of an edge in the adjacent triangle.
+     * @return the edge id, or -1 if the edge is on the boundary
+     */
+    public int getOpposite(int edge) {
+        return opposite[edge];
+    }
+
+    public double getX(int v) {
+        return xy[2 * v];
+    }
+
+    public double getY(int v) {
+        return xy[2 * v + 1];
+    }
+
+    /**
+     * Gets the coordinate a vertex was added with, or null if it was added
+     * by its ordinates.
+     */
+    public Coordinate getVertexCoordinate(int v) {
+        return coords[v];
+    }
+
+    /**
+     * Gets the coordinate of vertex i of triangle t.
+     */
+    public Coordinate getCoordinate(int t, int i) {
+        return coords[vertex[3 * t + i]];
+    }
+
+    /**
+     * Replaces an edge by the edge between the vertices opposite to it in
+     * its two triangles. With the triangle of the edge a-b-c and the
+     * adjacent triangle b-a-d, these become c-a-d and d-b-c, with the new
+     * edge as edge 2 of both. The four outer neighbours are relinked.
+     * @param edge
+     *            an edge with an adjacent triangle
+     */
+    public void flip(int edge) {
+        int oppEdge = opposite[edge];
+        int t = edge - edge % 3;
+        int u = oppEdge - oppEdge % 3;
+        int i1 = t + next(edge - t);
+        int i2 = t + next(i1 - t);
+        int a1 = u + next(oppEdge - u);
+        int a2 = u + next(a1 - u);
+        int va = vertex[edge];
+        int vb = vertex[i1];
+        int vc = vertex[i2];
+        int vd = vertex[a2];
+        int nbc = opposite[i1];
+        int nca = opposite[i2];
+        int nad = opposite[a1];
+        int ndb = opposite[a2];
+        vertex[t] = vc;
+        vertex[t + 1] = va;
+        vertex[t + 2] = vd;
+        vertex[u] = vd;
+        vertex[u + 1] = vb;
+        vertex[u + 2] = vc;
+        link(t, nca);
+        link(t + 1, nad);
+        link(u, ndb);
+        link(u + 1, nbc);
+        link(t + 2, u + 2);
+    }
+
+    public static int next(int i) {
+        return i == 2 ? 0 : i + 1;
+    }
+}
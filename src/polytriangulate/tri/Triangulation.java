@@ -4,37 +4,98 @@ import java.util.HashMap;
 
 import com.vividsolutions.jts.geom.Coordinate;
 
+/**
+ * Builds a {@link TriStore} from triangles given by their coordinates,
+ * linking each triangle to those already added across its edges. Equal
+ * coordinates are merged into one vertex, so triangles meet on an edge
+ * whenever they have its two coordinates. Triangles can also be given by
+ * the ids of distinct vertices added to the store beforehand.
+ */
 public class Triangulation {
-    private HashMap<TriEdge, TriN> triMap;
-    public Triangulation(){
-        triMap = new HashMap<TriEdge, TriN>();
+    private final TriStore store;
+    private final HashMap<Coordinate, Integer> vertexMap;
+    // edges waiting for their adjacent triangle
+    private final EdgeMap edgeMap;
+
+    public Triangulation() {
+        store = new TriStore();
+        vertexMap = new HashMap<Coordinate, Integer>();
+        edgeMap = new EdgeMap();
     }
-    public TriN find(TriEdge a) {
-        return triMap.get(a);
+
+    /**
+     * Removes all triangles, so that the triangulation can be reused.
+     */
+    public void clear() {
+        store.clear();
+        vertexMap.clear();
+        edgeMap.clear();
     }
-    
+
     /**
-     * Add triangle represented by coords to TriMap and update its neighbors
+     * Gets the triangles added so far.
+     */
+    public TriStore getStore() {
+        return store;
+    }
+
+    /**
+     * Add triangle represented by coords and link it to its neighbours
      * @param coords
-     * @return
+     * @return the id of the new triangle
      */
-    public TriN add(Coordinate[] coords) {
-        TriN tri = new TriN(coords[0], coords[1], coords[2]);
-        TriEdge a = new TriEdge(coords[0], coords[1]);
-        TriEdge b = new TriEdge(coords[1], coords[2]);
-        TriEdge c = new TriEdge(coords[0], coords[2]);
-        TriEdge[] edges = { a, b, c };
-        // get neighbors
-        TriN[] neighbors = { find(a), find(b), find(c) };
-        tri.setNeighbours(neighbors[0], neighbors[1], neighbors[2]);
-        for (int i = 0; i < 3; i++) {
-            if (neighbors[i] != null) {
-                neighbors[i].addNeighbour(tri);
-            } else {
-                // System.out.println(i);
-                triMap.put(edges[i], tri);
-            }
-        }
+    public int add(Coordinate[] coords) {
+        return add(coords[0], coords[1], coords[2]);
+    }
+
+    /**
+     * Add triangle p0-p1-p2 and link it to its neighbours. All triangles must
+     * have the same orientation, as the ears clipped from one shell do.
+     * @param p0
+     * @param p1
+     * @param p2
+     * @return the id of the new triangle
+     */
+    public int add(Coordinate p0, Coordinate p1, Coordinate p2) {
+        return add(vertex(p0), vertex(p1), vertex(p2));
+    }
+
+    /**
+     * Add triangle v0-v1-v2 and link it to its neighbours. The vertices must
+     * have been added to the store, and must not be added by coordinate as
+     * well, since they are not merged with those.
+     * @param v0
+     * @param v1
+     * @param v2
+     *            vertex ids in the store
+     * @return the id of the new triangle
+     */
+    public int add(int v0, int v1, int v2) {
+        int tri = store.addTriangle(v0, v1, v2);
+        link(3 * tri, v0, v1);
+        link(3 * tri + 1, v1, v2);
+        link(3 * tri + 2, v2, v0);
         return tri;
     }
+
+    private int vertex(Coordinate p) {
+        Integer v = vertexMap.get(p);
+        if (v == null) {
+            v = store.addVertex(p);
+            vertexMap.put(p, v);
+        }
+        return v;
+    }
+
+    /**
+     * Links an edge between vertices a and b to the triangle already added
+     * on it, or records the edge for the triangle to come. An edge is
+     * forgotten once both its triangles are there.
+     */
+    private void link(int edge, int a, int b) {
+        int oppositeEdge = edgeMap.match(EdgeMap.key(a, b), edge);
+        if (oppositeEdge >= 0) {
+            store.link(edge, oppositeEdge);
+        }
+    }
 }
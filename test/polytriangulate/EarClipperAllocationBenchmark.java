@@ -0,0 +1,96 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import java.lang.management.ManagementFactory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * Measures the bytes allocated by {@link EarClipper} per output triangle,
+ * using the per-thread allocation counter of the HotSpot management API.
+ * Star shaped polygons of increasing size are triangulated with and without
+ * improvement. The difference between two sizes divided by the difference in
+ * triangle count is the marginal cost of one vertex: the shell setup and the
+ * output Polygon. With improvement off the clipping loop itself allocates
+ * nothing else, so this stays flat as the polygon grows.
+ * <p>
+ * Usage: EarClipperAllocationBenchmark [numPoints [iterations]]
+ */
+public class EarClipperAllocationBenchmark {
+    private static final int WARMUP_ITERATIONS = 20;
+
+    private final GeometryFactory geomFact = new GeometryFactory();
+    private final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+
+    public static void main(String[] args) {
+        int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        EarClipperAllocationBenchmark bench = new EarClipperAllocationBenchmark();
+        bench.run(numPoints, iterations, false);
+        bench.run(numPoints, iterations, true);
+    }
+
+    /**
+     * Runs the benchmark for polygons of numPoints and 2 * numPoints vertices.
+     * @param numPoints
+     * @param iterations
+     *            number of measured runs for each size
+     * @param isImprove
+     */
+    public void run(int numPoints, int iterations, boolean isImprove) {
+        Polygon small = createStar(numPoints);
+        Polygon large = createStar(2 * numPoints);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            triangulate(small, isImprove);
+            triangulate(large, isImprove);
+        }
+        long bytesSmall = measure(small, iterations, isImprove);
+        long bytesLarge = measure(large, iterations, isImprove);
+        int trisSmall = numPoints - 2;
+        int trisLarge = 2 * numPoints - 2;
+        System.out.println("improve=" + isImprove + " points=" + numPoints
+                + " bytes/tri=" + bytesSmall / trisSmall + " points="
+                + 2 * numPoints + " bytes/tri=" + bytesLarge / trisLarge
+                + " marginal bytes/tri="
+                + (bytesLarge - bytesSmall) / (trisLarge - trisSmall));
+    }
+
+    /**
+     * @return the average number of bytes allocated by one triangulation
+     */
+    private long measure(Polygon poly, int iterations, boolean isImprove) {
+        long start = threadBean.getThreadAllocatedBytes(Thread.currentThread()
+                .getId());
+        for (int i = 0; i < iterations; i++) {
+            triangulate(poly, isImprove);
+        }
+        long end = threadBean.getThreadAllocatedBytes(Thread.currentThread()
+                .getId());
+        return (end - start) / iterations;
+    }
+
+    private Geometry triangulate(Polygon poly, boolean isImprove) {
+        EarClipper clipper = new EarClipper(poly);
+        clipper.setImprove(isImprove);
+        return clipper.getResult();
+    }
+
+    /**
+     * Creates a star with alternating outer and inner radius, so that every
+     * second vertex is reflex.
+     */
+    private Polygon createStar(int numPoints) {
+        Coordinate[] pts = new Coordinate[numPoints + 1];
+        for (int i = 0; i < numPoints; i++) {
+            double angle = 2 * Math.PI * i / numPoints;
+            double radius = i % 2 == 0 ? 100 : 90;
+            pts[i] = new Coordinate(radius * Math.cos(angle), radius
+                    * Math.sin(angle));
+        }
+        pts[numPoints] = new Coordinate(pts[0]);
+        return geomFact.createPolygon(geomFact.createLinearRing(pts), null);
+    }
+}
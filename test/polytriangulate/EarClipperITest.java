@@ -0,0 +1,133 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateFilter;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * Runs the {@link EarClipperTestCase} cases against {@link EarClipperI}. Most
+ * test polygons have coordinates on a quarter grid, so they are scaled to
+ * integers and the triangles scaled back. The others are compared with the
+ * polygon snapped to that grid.
+ */
+public class EarClipperITest extends EarClipperTestCase {
+    private static final int SCALE = 4;
+
+    public EarClipperITest(String name) {
+        super(name);
+    }
+
+    /**
+     * Ordinates up to the limit are clipped exactly, and any beyond it, in
+     * the shell or a hole, are rejected.
+     */
+    public void testOrdinateRange() {
+        int max = EarClipperI.MAX_ORDINATE;
+        EarClipperI clipper = new EarClipperI(new int[][] { { -max, -max,
+                -max, max, max, max, max, -max } });
+        assertEquals(2, clipper.getIndices().length / 3);
+        // a sliver spanned by consecutive Fibonacci numbers. Its orientation
+        // determinant is -1, but 0 in double arithmetic
+        clipper = new EarClipperI(new int[][] { { -max, -max, 762570080,
+                61161347, 61161347, -372333090 } });
+        assertEquals(1, clipper.getIndices().length / 3);
+        // MIN_VALUE has no positive counterpart, so a test on the absolute
+        // value would let it through
+        int[] outside = { max + 1, -max - 1, Integer.MIN_VALUE,
+                Integer.MAX_VALUE };
+        for (int i = 0; i < outside.length; i++) {
+            int v = outside[i];
+            assertRejected(new int[][] { { 0, 0, 0, v, 1, 0 } });
+            assertRejected(new int[][] { { v, 0, 0, 10, 10, 0 } });
+            assertRejected(new int[][] { { 0, 0, 0, 10, 10, 10, 10, 0 },
+                    { 1, 1, 2, 1, v, 2 } });
+        }
+    }
+
+    private void assertRejected(int[][] rings) {
+        try {
+            new EarClipperI(rings);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testNoRings() {
+        try {
+            new EarClipperI(new int[0][]);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The returned arrays are copies, so changing them does not change the
+     * result.
+     */
+    public void testResultCopied() {
+        EarClipperI clipper = new EarClipperI(new int[][] { { 0, 0, 0, 4, 4,
+                4, 4, 0 } });
+        clipper.getVertices()[0] = 7;
+        clipper.getIndices()[0] = 7;
+        assertEquals(0, clipper.getVertices()[0]);
+        assertTrue(clipper.getIndices()[0] < 4);
+    }
+
+    @Override
+    protected void unionEqualsOrigin(Geometry geo) {
+        super.unionEqualsOrigin(snap((Polygon) geo.getGeometryN(0)));
+    }
+
+    /**
+     * Rounds the coordinates to the grid EarClipperI works on.
+     */
+    private Polygon snap(Polygon poly) {
+        Polygon snapped = (Polygon) poly.clone();
+        snapped.apply(new CoordinateFilter() {
+            public void filter(Coordinate p) {
+                p.x = (double) Math.round(p.x * SCALE) / SCALE;
+                p.y = (double) Math.round(p.y * SCALE) / SCALE;
+            }
+        });
+        snapped.geometryChanged();
+        return snapped;
+    }
+
+    @Override
+    protected Geometry runEarClip(Geometry g, boolean improve) {
+        // extract first polygon, with the ring order EarClipper uses
+        Polygon poly = (Polygon) g.getGeometryN(0).clone();
+        poly.normalize();
+        int[][] rings = new int[poly.getNumInteriorRing() + 1][];
+        for (int r = 0; r < rings.length; r++) {
+            LineString ring = r == 0 ? poly.getExteriorRing() : poly
+                    .getInteriorRingN(r - 1);
+            Coordinate[] pts = ring.getCoordinates();
+            rings[r] = new int[2 * pts.length];
+            for (int i = 0; i < pts.length; i++) {
+                rings[r][2 * i] = (int) Math.round(pts[i].x * SCALE);
+                rings[r][2 * i + 1] = (int) Math.round(pts[i].y * SCALE);
+            }
+        }
+        EarClipperI clipper = new EarClipperI(rings);
+        clipper.setImprove(improve);
+        int[] v = clipper.getVertices();
+        int[] tri = clipper.getIndices();
+        Geometry[] geoms = new Geometry[tri.length / 3];
+        for (int i = 0; i < geoms.length; i++) {
+            Coordinate[] pts = new Coordinate[4];
+            for (int j = 0; j < 3; j++) {
+                int k = tri[3 * i + j];
+                pts[j] = new Coordinate((double) v[2 * k] / SCALE,
+                        (double) v[2 * k + 1] / SCALE);
+            }
+            pts[3] = pts[0];
+            geoms[i] = fact.createPolygon(pts);
+        }
+        Geometry ears = fact.createGeometryCollection(geoms);
+        System.out.println(ears);
+        return ears;
+    }
+}
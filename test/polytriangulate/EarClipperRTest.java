@@ -0,0 +1,65 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
+
+/**
+ * Runs the {@link EarClipperTestCase} cases against {@link EarClipperR}.
+ */
+public class EarClipperRTest extends EarClipperTestCase {
+
+    public EarClipperRTest(String name) {
+        super(name);
+    }
+
+    /**
+     * A grid of holes, where most ears are blocked by the vertices of
+     * several holes and the holes are joined through each other. The
+     * triangles must not overlap, so their areas add up to the area of the
+     * polygon.
+     */
+    public void testMultiRingJoins() throws ParseException {
+        System.out.println("------multi ring joins------");
+        StringBuilder wkt = new StringBuilder(
+                "POLYGON ((0 0, 0 40, 40 40, 40 0, 0 0)");
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                int x = 5 + 12 * i + j;
+                int y = 5 + 12 * j + i;
+                wkt.append(", (" + x + " " + y + ", " + (x + 6) + " " + y
+                        + ", " + (x + 3) + " " + (y + 6) + ", " + x + " " + y
+                        + ")");
+            }
+        }
+        wkt.append(")");
+        Polygon poly = (Polygon) reader.read(wkt.toString());
+        Geometry result = runEarClip(poly, false);
+        double area = 0;
+        for (int i = 0; i < result.getNumGeometries(); i++) {
+            area += result.getGeometryN(i).getArea();
+        }
+        assertEquals(poly.getArea(), area, COMPARISON_TOLERANCE);
+        unionEqualsOrigin(result, poly.union());
+    }
+
+    /**
+     * Holes which touch the shell and each other share vertices with the
+     * rings they are joined to.
+     */
+    public void testTouchingRingJoins() throws ParseException {
+        System.out.println("------touching ring joins------");
+        String poly = "POLYGON ((0 0, 0.5 0, 1 0, 1.5 0, 2 0, 2.5 0, 3 0, 3.5 0, 4 0, 4.5 0, 5 0, 5 0.5, 5 1, 5 1.5, 5 2, 5 2.5, 5 3, 5 3.5, 5 4, 5 4.5, 5 5, 4.5 5, 4 5, 3.5 5, 3 5, 2.5 5, 2 5, 1.5 5, 1 5, 0.5 5, 0 5, 0 4.5, 0 4, 0 3.5, 0 3, 0 2.5, 0 2, 0 1.5, 0 1, 0 0.5, 0 0), (2.5 1, 3 1.5, 2.5 2, 2 1.5, 2.5 1), (3.5 1, 4 1.5, 3.5 2, 3 1.5, 3.5 1), (3.5 2, 4 2.5, 3.5 3, 3 2.5, 3.5 2), (4.2 0.5, 4.5 0.8, 4.7 0.5, 4.5 0.2, 4.2 0.5), (4.5 3, 5 3.5, 4.5 4, 4 3.5, 4.5 3))";
+        unionEqualsOrigin(poly);
+    }
+
+    @Override
+    protected Geometry runEarClip(Geometry g, boolean improve) {
+        // extract first polygon
+        EarClipperR clipper = new EarClipperR((Polygon) g.getGeometryN(0));
+        clipper.setImprove(improve);
+        Geometry ears = clipper.getResult();
+        System.out.println(ears);
+        return ears;
+    }
+}
@@ -0,0 +1,49 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.util.AffineTransformation;
+import com.vividsolutions.jts.io.ParseException;
+
+/**
+ * Runs the {@link EarClipperTestCase} cases against {@link EarClipperZ}.
+ */
+public class EarClipperZTest extends EarClipperTestCase {
+
+    public EarClipperZTest(String name) {
+        super(name);
+    }
+
+    /**
+     * The Z-order codes are scaled to the shell envelope, and the range for
+     * an ear runs from the code of its lower left corner to that of its
+     * upper right one. Blocking vertices must be found whether the ordinates
+     * are far from the origin or the envelope is much wider than high.
+     */
+    public void testMortonRangeBounds() throws ParseException {
+        System.out.println("------morton range bounds------");
+        // the tip of the notch blocks the corner at (10 10)
+        String notch = "POLYGON ((0 0, 0 10, 10 10, 10 0, 6 0, 5 8, 4 0, 0 0))";
+        String[] wkts = { notch, getHoles(1), getHoles(2), getHoles(4) };
+        AffineTransformation[] transforms = {
+                AffineTransformation.translationInstance(1.0e7, -1.0e7),
+                AffineTransformation.scaleInstance(1000, 0.001),
+                AffineTransformation.scaleInstance(0.001, 1000) };
+        for (int i = 0; i < wkts.length; i++) {
+            for (int j = 0; j < transforms.length; j++) {
+                Geometry geo = transforms[j].transform(reader.read(wkts[i]));
+                unionEqualsOrigin(runEarClip(geo, false), geo.union());
+            }
+        }
+    }
+
+    @Override
+    protected Geometry runEarClip(Geometry g, boolean improve) {
+        // extract first polygon
+        EarClipperZ clipper = new EarClipperZ((Polygon) g.getGeometryN(0));
+        clipper.setImprove(improve);
+        Geometry ears = clipper.getResult();
+        System.out.println(ears);
+        return ears;
+    }
+}
@@ -0,0 +1,62 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import junit.framework.TestCase;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+public class FanTriangulatorTest extends TestCase {
+    private WKTReader reader = new WKTReader();
+
+    public FanTriangulatorTest(String name) {
+        super(name);
+    }
+
+    public void testConvex() throws ParseException {
+        // the apex is the smallest vertex, in either orientation
+        assertEquals(1, findApex("POLYGON ((3 -1, 2 2, 5 3, 6 0, 3 -1))"));
+        assertEquals(3, findApex("POLYGON ((3 -1, 6 0, 5 3, 2 2, 3 -1))"));
+    }
+
+    public void testCollinear() throws ParseException {
+        assertEquals(0, findApex("POLYGON ((0 0, 0 5, 0 10, 10 10, 10 0, 5 0, 0 0))"));
+        assertEquals(-1, findApex("POLYGON ((0 0, 0 5, 0 10, 0 0))"));
+    }
+
+    public void testSingleReflex() throws ParseException {
+        assertEquals(3, findApex("POLYGON ((0 0, 0 20, 10 20, 10 10, 20 10, 20 0, 0 0))"));
+        assertEquals(3, findApex("POLYGON ((0 0, 0 20, 1 20, 10 2, 20 20, 20 0, 0 0))"));
+    }
+
+    public void testTwoReflex() throws ParseException {
+        assertEquals(-1, findApex("POLYGON ((0 0, 0 20, 5 20, 5 10, 15 10, 15 20, 20 20, 20 0, 0 0))"));
+    }
+
+    public void testTriangles() throws ParseException {
+        Polygon poly = (Polygon) reader.read("POLYGON ((0 0, 0 20, 10 20, 10 10, 20 10, 20 0, 0 0))");
+        Coordinate[] ring = poly.getExteriorRing().getCoordinates();
+        final double[] area = { 0 };
+        final int[] count = { 0 };
+        FanTriangulator.addFan(ring, FanTriangulator.findApex(ring),
+                new TriangleSink() {
+                    public void addTriangle(Coordinate p0, Coordinate p1,
+                            Coordinate p2) {
+                        double area2 = (p1.x - p0.x) * (p2.y - p0.y)
+                                - (p1.y - p0.y) * (p2.x - p0.x);
+                        // clockwise
+                        assertTrue(area2 < 0);
+                        area[0] -= area2 / 2;
+                        count[0]++;
+                    }
+                });
+        assertEquals(4, count[0]);
+        assertEquals(poly.getArea(), area[0], 0);
+    }
+
+    private int findApex(String wkt) throws ParseException {
+        Polygon poly = (Polygon) reader.read(wkt);
+        return FanTriangulator.findApex(poly.getExteriorRing().getCoordinates());
+    }
+}
@@ -3,7 +3,9 @@ package com.vividsolutions.jts.polytriangulate;
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
@@ -33,6 +35,124 @@ public class HoleJoinerTest extends TestCase {
         showWKTPoly(polyCray);
     }
 
+    /**
+     * The joined shell traverses every ring once and each bridge twice in
+     * opposite directions, so it encloses the area of the polygon.
+     */
+    public void testJoinedShellArea() throws ParseException {
+        String polyStr = "POLYGON ((100 400, 500 400, 500 100, 100 100, 100 400), (150 350, 200 350, 200 300, 150 300, 150 350), (150 250, 200 250, 200 200, 150 200, 150 250), (225 325, 270 325, 270 290, 225 290, 225 325), (230 270, 270 270, 270 230, 230 230, 230 270), (125 282, 211 282, 211 265, 125 265, 125 282))";
+        checkJoinedShellArea(polyStr, false, false);
+        checkJoinedShellArea(polyStr, true, false);
+        checkJoinedShellArea(polyStr, false, true);
+    }
+
+    /**
+     * Holes touching the shell, and holes touching holes bridged before,
+     * mixed with the bridging options which do not join in cut order.
+     */
+    public void testTouchingHoles() throws ParseException {
+        String polyStr = "POLYGON ((0 0, 0.5 0, 1 0, 1.5 0, 2 0, 2.5 0, 3 0, 3 0.5, 3 1, 3 1.5, 3 2, 3 2.5, 3 3, 2.5 3, 2 3, 1.5 3, 1 3, 0.5 3, 0 3, 0 2.5, 0 2, 0 1.5, 0 1, 0 0.5, 0 0), (1 1.5, 1.5 2, 1.7 1.5, 1.5 1, 1 1.5), (1.5 2, 2 2.5, 1.5 3, 1 2.5, 1.5 2), (2.5 1, 3 1.5, 2.5 2, 2 1.5, 2.5 1))";
+        String polyStr2 = "POLYGON ((0 0, 0.5 0, 1 0, 1.5 0, 2 0, 2.5 0, 3 0, 3.5 0, 4 0, 4.5 0, 5 0, 5 0.5, 5 1, 5 1.5, 5 2, 5 2.5, 5 3, 5 3.5, 5 4, 5 4.5, 5 5, 4.5 5, 4 5, 3.5 5, 3 5, 2.5 5, 2 5, 1.5 5, 1 5, 0.5 5, 0 5, 0 4.5, 0 4, 0 3.5, 0 3, 0 2.5, 0 2, 0 1.5, 0 1, 0 0.5, 0 0), (2.5 1, 3 1.5, 2.5 2, 2 1.5, 2.5 1), (3.5 1, 4 1.5, 3.5 2, 3 1.5, 3.5 1), (3.5 2, 4 2.5, 3.5 3, 3 2.5, 3.5 2), (4.2 0.5, 4.5 0.8, 4.7 0.5, 4.5 0.2, 4.2 0.5))";
+        String[] polyStrs = { polyStr, polyStr2 };
+        for (int i = 0; i < polyStrs.length; i++) {
+            checkJoinedShellArea(polyStrs[i], true, false);
+            checkJoinedShellArea(polyStrs[i], false, true);
+            checkTriangulatedArea(polyStrs[i], true, false);
+            checkTriangulatedArea(polyStrs[i], false, true);
+        }
+    }
+
+    /**
+     * The lower hole is bridged up to the left, so the ray cast from the
+     * upper hole crosses that bridge before it meets the shell.
+     */
+    public void testRayCrossingBridge() throws ParseException {
+        String polyStr = "POLYGON ((0 0, -10 50, 0 100, 100 100, 100 0, 0 0), (5 10, 15 15, 15 5, 5 10), (8 30, 20 35, 20 25, 8 30))";
+        checkJoinedShellArea(polyStr, true, false);
+        checkTriangulatedArea(polyStr, true, false);
+    }
+
+    /**
+     * Holes along the right side of the shell are joined to it there, and
+     * the one behind them to the nearest of them, instead of being bridged
+     * across to the left side.
+     */
+    public void testNearestOrder() throws ParseException {
+        String polyStr = "POLYGON ((0 0, 0 100, 100 100, 100 80, 100 50, 100 10, 100 0, 0 0), (90 10, 95 15, 95 10, 90 10), (90 50, 95 55, 95 50, 90 50), (90 80, 95 85, 95 80, 90 80), (80 50, 85 55, 85 50, 80 50))";
+        checkJoinedShellArea(polyStr, false, true);
+        checkTriangulatedArea(polyStr, false, true);
+        // 4 bridges, each run twice, and none longer than 10
+        assertTrue(getJoinedShellLength(polyStr, true) < getJoinedShellLength(
+                polyStr, false));
+        Polygon poly = (Polygon) reader.read(polyStr);
+        assertTrue(getJoinedShellLength(polyStr, true) <= poly.getLength()
+                + 2 * 4 * 10);
+    }
+
+    /**
+     * The nearest bridges meet the holes at vertices which are collinear
+     * with the shell edges, so the joined shell has straight corners at
+     * vertices it passes through twice.
+     */
+    public void testStraightSharedCorner() throws ParseException {
+        String polyStr = "POLYGON ((0 0, 0.5 0, 1 0, 1.5 0, 2 0, 2.5 0, 3 0, 3.5 0, 4 0, 4.5 0, 5 0, 5.5 0, 6 0, 6 0.5, 6 1, 6 1.5, 6 2, 6 2.5, 6 3, 6 3.5, 6 4, 6 4.5, 6 5, 6 5.5, 6 6, 5.5 6, 5 6, 4.5 6, 4 6, 3.5 6, 3 6, 2.5 6, 2 6, 1.5 6, 1 6, 0.5 6, 0 6, 0 5.5, 0 5, 0 4.5, 0 4, 0 3.5, 0 3, 0 2.5, 0 2, 0 1.5, 0 1, 0 0.5, 0 0), (1.5 4, 2 4.5, 1.5 5, 1 4.5, 1.5 4), (2 3.5, 2.5 4, 2.7 3.5, 2.5 3, 2 3.5), (3 3.5, 3.5 4, 3.7 3.5, 3.5 3, 3 3.5))";
+        checkJoinedShellArea(polyStr, false, true);
+        checkTriangulatedArea(polyStr, false, true);
+    }
+
+    private double getJoinedShellLength(String polyStr, boolean isNearest)
+            throws ParseException {
+        Polygon poly = (Polygon) reader.read(polyStr);
+        poly.normalize();
+        ArrayList<Coordinate> shellCoords = new ArrayList<Coordinate>();
+        shellCoords.addAll(Arrays.asList(poly.getExteriorRing()
+                .getCoordinates()));
+        HoleJoiner holeJoiner = new HoleJoiner(poly);
+        holeJoiner.setNearest(isNearest);
+        holeJoiner.joinHoles(shellCoords);
+        return gf.createLineString(
+                shellCoords.toArray(new Coordinate[0])).getLength();
+    }
+
+    /**
+     * The triangles clipped from the joined shell lie in the polygon and
+     * cover its area once.
+     */
+    private void checkTriangulatedArea(String polyStr, boolean isRayCast,
+            boolean isNearest) throws ParseException {
+        Polygon poly = (Polygon) reader.read(polyStr);
+        EarClipper clipper = new EarClipper(poly);
+        clipper.setImprove(false);
+        clipper.setRayCastBridging(isRayCast);
+        clipper.setNearestBridging(isNearest);
+        Geometry result = clipper.getResult();
+        double area = 0;
+        for (int i = 0; i < result.getNumGeometries(); i++) {
+            Geometry triangle = result.getGeometryN(i);
+            assertTrue(poly.covers(triangle));
+            area += triangle.getArea();
+        }
+        assertEquals(poly.getArea(), area, 1.0e-9);
+    }
+
+    private void checkJoinedShellArea(String polyStr, boolean isRayCast,
+            boolean isNearest) throws ParseException {
+        Polygon poly = (Polygon) reader.read(polyStr);
+        poly.normalize();
+        ArrayList<Coordinate> shellCoords = new ArrayList<Coordinate>();
+        shellCoords.addAll(Arrays.asList(poly.getExteriorRing()
+                .getCoordinates()));
+        HoleJoiner holeJoiner = new HoleJoiner(poly);
+        holeJoiner.setRayCast(isRayCast);
+        holeJoiner.setNearest(isNearest);
+        holeJoiner.joinHoles(shellCoords);
+        int numPoints = poly.getNumPoints() + poly.getNumInteriorRing();
+        assertEquals(numPoints, shellCoords.size());
+        double area = Math.abs(CGAlgorithms.signedArea(shellCoords
+                .toArray(new Coordinate[0])));
+        assertEquals(poly.getArea(), area, 1.0e-9);
+    }
+
     public void showWKTPoly(String polyStr) throws ParseException {
         Polygon poly = (Polygon) reader.read(polyStr);
         poly.normalize();
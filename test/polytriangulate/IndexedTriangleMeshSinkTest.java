@@ -0,0 +1,58 @@
+package com.vividsolutions.jts.polytriangulate;
+
+import junit.framework.TestCase;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+public class IndexedTriangleMeshSinkTest extends TestCase {
+
+    public IndexedTriangleMeshSinkTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Every vertex of a grid is stored once, in the order it is first met,
+     * although the sink expects far fewer vertices.
+     */
+    public void testGrid() {
+        int n = 40;
+        IndexedTriangleMeshSink sink = new IndexedTriangleMeshSink(3);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Coordinate p0 = new Coordinate(i, j);
+                Coordinate p1 = new Coordinate(i + 1, j + 1);
+                sink.addTriangle(p0, new Coordinate(i, j + 1), p1);
+                sink.addTriangle(p0, p1, new Coordinate(i + 1, j));
+            }
+        }
+        IndexedTriangleMesh mesh = sink.getResult();
+        assertEquals((n + 1) * (n + 1), mesh.getNumVertices());
+        assertEquals(2 * n * n, mesh.getNumTriangles());
+        double[] v = mesh.getVertices();
+        int[] tri = mesh.getIndices();
+        for (int k = 0; k < tri.length; k++) {
+            assertTrue(tri[k] <= k);
+        }
+        // the second triangle of the last cell
+        int last = tri.length - 3;
+        assertEquals((double) n - 1, v[2 * tri[last]]);
+        assertEquals((double) n, v[2 * tri[last + 2]]);
+        assertEquals((double) n - 1, v[2 * tri[last + 2] + 1]);
+    }
+
+    /**
+     * Negative zero equals zero, as for {@link Coordinate#equals}.
+     */
+    public void testNegativeZero() {
+        IndexedTriangleMeshSink sink = new IndexedTriangleMeshSink(3);
+        sink.addTriangle(new Coordinate(0, 0), new Coordinate(0, 1),
+                new Coordinate(1, 0));
+        sink.addTriangle(new Coordinate(-0.0, -0.0), new Coordinate(-1, 0),
+                new Coordinate(-0.0, 1));
+        IndexedTriangleMesh mesh = sink.getResult();
+        assertEquals(4, mesh.getNumVertices());
+        int[] tri = mesh.getIndices();
+        assertEquals(0, tri[3]);
+        assertEquals(1, tri[5]);
+    }
+}
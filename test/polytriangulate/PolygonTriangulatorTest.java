@@ -1,7 +1,11 @@
 package com.vividsolutions.jts.polytriangulate;
 
+import java.util.Random;
+
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKTReader;
 
@@ -26,7 +30,64 @@ public class PolygonTriangulatorTest extends TestCase {
         String original = "POLYGON ((0 0, 4 0, 3 1, 1 2, 0 0))";
         unionEqualsOrigin(original);
     }
-    
+
+    public void testGetEarClipperResultZOrder() throws ParseException {
+        String original = "GEOMETRYCOLLECTION (POLYGON ((0 0, 4 0, 3 1, 1 2, 0 0)), "
+                + "POLYGON ((5 0, 5 -1, 10 -2, 13 5, 5 0), (8 0, 10 0, 10 1, 8 0)))";
+        Geometry geo = reader.read(original);
+        PolygonTriangulator runner = new PolygonTriangulator(geo);
+        runner.setZOrder(true);
+        unionEqualsOrigin(runner.getEarClipperResult(false), geo.union());
+    }
+
+    public void testGetEarClipperResultParallel() throws ParseException {
+        StringBuilder wkt = new StringBuilder("MULTIPOLYGON (");
+        for (int i = 0; i < 50; i++) {
+            int x = 20 * i;
+            wkt.append(i == 0 ? "" : ", ");
+            wkt.append("((" + x + " 0, " + (x + 10) + " 0, " + (x + 10)
+                    + " 10, " + (x + 5) + " 4, " + x + " 10, " + x + " 0), ("
+                    + (x + 2) + " 1, " + (x + 3) + " 1, " + (x + 3) + " 2, "
+                    + (x + 2) + " 1))");
+        }
+        wkt.append(")");
+        Geometry geo = reader.read(wkt.toString());
+        PolygonTriangulator serial = new PolygonTriangulator(geo);
+        Geometry expected = serial.getEarClipperResult(false);
+        PolygonTriangulator parallel = new PolygonTriangulator(geo);
+        parallel.setParallel(true);
+        Geometry result = parallel.getEarClipperResult(false);
+        // same triangles in the same order
+        assertTrue(expected.equalsExact(result));
+        unionEqualsOrigin(result, geo.union());
+    }
+
+    public void testImproveParallel() {
+        // a star shaped polygon, large enough to be improved in parallel
+        Random rnd = new Random(11);
+        int n = 12000;
+        Coordinate[] pts = new Coordinate[n + 1];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * (i + rnd.nextDouble() / 2) / n;
+            double radius = 1000 + 100 * rnd.nextDouble();
+            pts[i] = new Coordinate(radius * Math.cos(angle), radius
+                    * Math.sin(angle));
+        }
+        pts[n] = pts[0];
+        GeometryFactory gf = new GeometryFactory();
+        Geometry geo = gf.createPolygon(gf.createLinearRing(pts), null);
+        Geometry expected = new PolygonTriangulator(geo)
+                .getEarClipperResult(true);
+        PolygonTriangulator parallel = new PolygonTriangulator(geo);
+        parallel.setParallel(true);
+        Geometry result = parallel.getEarClipperResult(true);
+        // the points are in general position, so the Delaunay triangulation
+        // is unique
+        expected.normalize();
+        result.normalize();
+        assertTrue(expected.equalsExact(result));
+    }
+
     /**
      * Check if there is overlap among earclipped triangles. Then union them
      * back to one polygon and compare with the original.
@@ -0,0 +1,52 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class EdgeMapTest extends TestCase {
+    public EdgeMapTest(String name) {
+        super(name);
+    }
+
+    public void testKey() {
+        assertEquals(EdgeMap.key(3, 7), EdgeMap.key(7, 3));
+        assertTrue(EdgeMap.key(3, 7) != EdgeMap.key(3, 8));
+        assertTrue(EdgeMap.key(0, 1) >= 0);
+    }
+
+    public void testMatch() {
+        EdgeMap map = new EdgeMap();
+        assertEquals(-1, map.match(EdgeMap.key(1, 2), 5));
+        assertEquals(1, map.size());
+        assertEquals(5, map.match(EdgeMap.key(2, 1), 9));
+        assertEquals(0, map.size());
+        // matched edges are gone, so the edge is added again
+        assertEquals(-1, map.match(EdgeMap.key(1, 2), 7));
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, map.match(EdgeMap.key(1, 2), 8));
+    }
+
+    /**
+     * Checks growing and removal, which moves entries back along their
+     * probe, against a HashMap.
+     */
+    public void testRandom() {
+        Random random = new Random(25);
+        EdgeMap map = new EdgeMap();
+        HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+        for (int n = 0; n < 200000; n++) {
+            long key = EdgeMap.key(random.nextInt(300), random.nextInt(300));
+            Integer value = expected.remove(key);
+            if (value == null) {
+                expected.put(key, n);
+                assertEquals(-1, map.match(key, n));
+            } else {
+                assertEquals(value.intValue(), map.match(key, n));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class TriPredicateTest extends TestCase {
+    public TriPredicateTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Points a few ulps away from the line through two distant points, as in
+     * Kettner et al. The plain determinant gets many of these wrong.
+     */
+    public void testOrientationNearLine() {
+        double ulp = Math.ulp(0.5);
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                double px = 0.5 + i * ulp;
+                double py = 0.5 + j * ulp;
+                assertEquals(exactOrientation(px, py, 12, 12, 24, 24),
+                        TriPredicate.orientationIndex(px, py, 12, 12, 24, 24));
+                assertEquals(exactOrientation(24, 24, px, py, 12, 12),
+                        TriPredicate.orientationIndex(24, 24, px, py, 12, 12));
+            }
+        }
+    }
+
+    public void testOrientationRandom() {
+        Random rnd = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            double ax = rnd.nextDouble() * 1000;
+            double ay = rnd.nextDouble() * 1000;
+            double bx = ax + rnd.nextDouble();
+            double by = ay + rnd.nextDouble();
+            double t = rnd.nextDouble() * 1.0e3;
+            // nearly on the line through a and b
+            double cx = ax + t * (bx - ax);
+            double cy = ay + t * (by - ay) + (rnd.nextInt(3) - 1)
+                    * Math.ulp(ay);
+            assertEquals(exactOrientation(ax, ay, bx, by, cx, cy),
+                    TriPredicate.orientationIndex(ax, ay, bx, by, cx, cy));
+        }
+    }
+
+    public void testInCircle() {
+        // the corners of a square are cocircular
+        assertEquals(0, TriPredicate.inCircle(0, 0, 1, 0, 1, 1, 0, 1));
+        assertEquals(1, TriPredicate.inCircle(0, 0, 1, 0, 1, 1, 0.5, 0.5));
+        assertEquals(-1, TriPredicate.inCircle(0, 0, 1, 0, 1, 1, 2, 2));
+        double ulp = Math.ulp(1e6);
+        for (int i = -8; i <= 8; i++) {
+            double y = 1e6 + 1 + i * ulp;
+            assertEquals(exactInCircle(1e6, 1e6, 1e6 + 1, 1e6, 1e6 + 1, 1e6 + 1,
+                    1e6, y), TriPredicate.inCircle(1e6, 1e6, 1e6 + 1, 1e6,
+                    1e6 + 1, 1e6 + 1, 1e6, y));
+        }
+    }
+
+    private static int exactOrientation(double ax, double ay, double bx,
+            double by, double cx, double cy) {
+        BigDecimal acx = bd(ax).subtract(bd(cx));
+        BigDecimal acy = bd(ay).subtract(bd(cy));
+        BigDecimal bcx = bd(bx).subtract(bd(cx));
+        BigDecimal bcy = bd(by).subtract(bd(cy));
+        return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+    }
+
+    private static int exactInCircle(double ax, double ay, double bx,
+            double by, double cx, double cy, double dx, double dy) {
+        BigDecimal adx = bd(ax).subtract(bd(dx));
+        BigDecimal ady = bd(ay).subtract(bd(dy));
+        BigDecimal bdx = bd(bx).subtract(bd(dx));
+        BigDecimal bdy = bd(by).subtract(bd(dy));
+        BigDecimal cdx = bd(cx).subtract(bd(dx));
+        BigDecimal cdy = bd(cy).subtract(bd(dy));
+        BigDecimal alift = adx.multiply(adx).add(ady.multiply(ady));
+        BigDecimal blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+        BigDecimal clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+        return alift
+                .multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(blift.multiply(cdx.multiply(ady).subtract(
+                        adx.multiply(cdy))))
+                .add(clift.multiply(adx.multiply(bdy).subtract(
+                        bdx.multiply(ady)))).signum();
+    }
+
+    private static BigDecimal bd(double v) {
+        return new BigDecimal(v);
+    }
+}
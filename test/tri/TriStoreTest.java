@@ -0,0 +1,149 @@
+package com.vividsolutions.jts.polytriangulate.tri;
+
+import junit.framework.TestCase;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.Coordinate;
+
+public class TriStoreTest extends TestCase {
+    public TriStoreTest(String name) {
+        super(name);
+    }
+
+    public void testTriangulationLinks() {
+        // a fan around the origin
+        Coordinate c = new Coordinate(0, 0);
+        Coordinate[] ring = { new Coordinate(1, 0), new Coordinate(0, -1),
+                new Coordinate(-1, 0), new Coordinate(0, 1) };
+        Triangulation triangulation = new Triangulation();
+        int[] tris = new int[4];
+        for (int i = 0; i < 4; i++) {
+            tris[i] = triangulation.add(c, ring[i], ring[(i + 1) % 4]);
+        }
+        TriStore store = triangulation.getStore();
+        assertEquals(4, store.size());
+        assertEquals(5, store.getNumVertices());
+        for (int i = 0; i < 4; i++) {
+            checkLinks(store, tris[i]);
+            assertEquals(tris[(i + 3) % 4], store.getNeighbour(tris[i], 0));
+            assertEquals(-1, store.getNeighbour(tris[i], 1));
+            assertEquals(tris[(i + 1) % 4], store.getNeighbour(tris[i], 2));
+        }
+        // the new diagonal runs through the centre, but the links must hold
+        store.flip(3 * tris[0]);
+        for (int i = 0; i < 4; i++) {
+            checkLinks(store, tris[i]);
+        }
+    }
+
+    public void testFlip() {
+        Coordinate coord1 = new Coordinate(7, 9);
+        Coordinate coord2 = new Coordinate(0, 4);
+        Coordinate coord3 = new Coordinate(5, 0);
+        Coordinate coord4 = new Coordinate(0, 0);
+        Coordinate coord5 = new Coordinate(2, -6);
+        // all clockwise
+        Triangulation triangulation = new Triangulation();
+        int top = triangulation.add(coord1, coord3, coord2);
+        int mid = triangulation.add(coord4, coord2, coord3);
+        int botm = triangulation.add(coord5, coord4, coord3);
+        TriStore store = triangulation.getStore();
+        assertEquals(3 * top + 1, store.getOpposite(3 * mid + 1));
+        store.flip(3 * mid + 1);
+        checkTri(store, mid, coord4, coord2, coord1);
+        checkTri(store, top, coord1, coord3, coord4);
+        assertEquals(top, store.getNeighbour(mid, 2));
+        assertEquals(botm, store.getNeighbour(top, 1));
+        assertEquals(top, store.getNeighbour(botm, 1));
+        assertEquals(-1, store.getNeighbour(mid, 0));
+        assertEquals(-1, store.getNeighbour(mid, 1));
+        checkLinks(store, top);
+        checkLinks(store, mid);
+        checkLinks(store, botm);
+    }
+
+    public void testClear() {
+        Triangulation triangulation = new Triangulation();
+        Coordinate p0 = new Coordinate(0, 0);
+        Coordinate p1 = new Coordinate(0, 1);
+        Coordinate p2 = new Coordinate(1, 0);
+        Coordinate p3 = new Coordinate(1, 1);
+        triangulation.add(p0, p1, p2);
+        triangulation.clear();
+        assertEquals(0, triangulation.getStore().size());
+        assertEquals(0, triangulation.getStore().getNumVertices());
+        // the old edge p1-p2 must not be linked to the new triangle
+        int t = triangulation.add(p2, p1, p3);
+        assertEquals(0, t);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(-1, triangulation.getStore().getNeighbour(t, i));
+        }
+    }
+
+    public void testGrow() {
+        // a strip of triangles beyond the initial capacity
+        Triangulation triangulation = new Triangulation();
+        int n = 100;
+        for (int i = 0; i < n; i++) {
+            Coordinate a = new Coordinate(i, 0);
+            Coordinate b = new Coordinate(i, 1);
+            Coordinate c = new Coordinate(i + 1, 0);
+            Coordinate d = new Coordinate(i + 1, 1);
+            triangulation.add(a, b, c);
+            triangulation.add(c, b, d);
+        }
+        TriStore store = triangulation.getStore();
+        assertEquals(2 * n, store.size());
+        assertEquals(2 * n + 2, store.getNumVertices());
+        for (int t = 0; t < store.size(); t++) {
+            checkLinks(store, t);
+            checkOrientation(store, t);
+        }
+        // Euler: V - E + F = 2, counting the outer face
+        assertEquals(4 * n + 1, countEdges(store));
+    }
+
+    private static int countEdges(TriStore store) {
+        int count = 0;
+        for (int e = 0; e < 3 * store.size(); e++) {
+            int opp = store.getOpposite(e);
+            if (opp < 0 || opp > e) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void checkTri(TriStore store, int t, Coordinate p0,
+            Coordinate p1, Coordinate p2) {
+        assertEquals(p0, store.getCoordinate(t, 0));
+        assertEquals(p1, store.getCoordinate(t, 1));
+        assertEquals(p2, store.getCoordinate(t, 2));
+        checkOrientation(store, t);
+    }
+
+    private void checkOrientation(TriStore store, int t) {
+        assertEquals(CGAlgorithms.CLOCKWISE, TriPredicate.orientationIndex(
+                store.getCoordinate(t, 0), store.getCoordinate(t, 1),
+                store.getCoordinate(t, 2)));
+    }
+
+    /**
+     * Checks that each neighbour links back on the same edge, in the other
+     * direction.
+     */
+    private void checkLinks(TriStore store, int t) {
+        for (int i = 0; i < 3; i++) {
+            int e = 3 * t + i;
+            int opp = store.getOpposite(e);
+            if (opp >= 0) {
+                int u = opp / 3;
+                assertEquals(e, store.getOpposite(opp));
+                assertEquals(store.getVertex(t, i),
+                        store.getVertex(u, TriStore.next(opp % 3)));
+                assertEquals(store.getVertex(t, TriStore.next(i)),
+                        store.getEdgeVertex(opp));
+            }
+        }
+    }
+}